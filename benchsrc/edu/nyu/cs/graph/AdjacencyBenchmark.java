@@ -0,0 +1,174 @@
+package edu.nyu.cs.graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+/***
+ * Compares the plain ArrayList adjacency lists the graph used to keep with
+ * the adaptive NeighborSet, for neighbor lists whose sizes follow several
+ * degree distributions holding the same total number of neighbors. For each
+ * it times building the lists, membership probes (about half of them hits,
+ * at most 1000 per list),
+ * iteration, and removing every neighbor in random order, which is what
+ * removeVertex() does to the lists of the removed vertex's neighbors.
+ * Finally it times removing every leaf of a star graph through
+ * UndirectedGraph. Run with the total number of neighbors as the only
+ * argument (default 50000).
+ */
+public class AdjacencyBenchmark {
+  // Keeps the quadratic cost of probing a huge ArrayList bearable
+  private static final int MAX_PROBES_PER_LIST = 1000;
+
+  private interface ContainerFactory {
+    Collection<Integer> create();
+  }
+
+  public static void main(String[] args) {
+    int totalNeighbors = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+    Random random = new Random(42);
+
+    List<String> names = new ArrayList<String>();
+    List<int[]> distributions = new ArrayList<int[]>();
+    names.add("uniform degree 8");
+    distributions.add(uniformDegrees(totalNeighbors, 8));
+    names.add("power law");
+    distributions.add(powerLawDegrees(totalNeighbors, random));
+    names.add("single hub");
+    distributions.add(new int[] {totalNeighbors});
+
+    ContainerFactory arrayLists = new ContainerFactory() {
+      @Override
+      public Collection<Integer> create() {
+        return new ArrayList<Integer>();
+      }
+    };
+    ContainerFactory neighborSets = new ContainerFactory() {
+      @Override
+      public Collection<Integer> create() {
+        return new NeighborSet<Integer>();
+      }
+    };
+    for (int i = 0; i < names.size(); i++) {
+      // Warm up both containers before measuring
+      run(names.get(i), "ArrayList", distributions.get(i), arrayLists, false);
+      run(names.get(i), "NeighborSet", distributions.get(i), neighborSets,
+          false);
+      run(names.get(i), "ArrayList", distributions.get(i), arrayLists, true);
+      run(names.get(i), "NeighborSet", distributions.get(i), neighborSets,
+          true);
+    }
+
+    UndirectedGraph<Integer> star = new UndirectedGraph<Integer>();
+    star.addVertex(0);
+    for (int leaf = 1; leaf <= totalNeighbors / 2; leaf++) {
+      star.addVertex(leaf);
+      star.addEdge(0, leaf, "");
+    }
+    long start = System.nanoTime();
+    for (int leaf = 1; leaf <= totalNeighbors / 2; leaf++) {
+      star.removeVertex(leaf);
+    }
+    System.out.printf("removing %d leaves of a star graph: %.1f ms%n",
+        totalNeighbors / 2, (System.nanoTime() - start) / 1e6);
+  }
+
+  private static void run(String distribution, String container,
+      int[] degrees, ContainerFactory factory, boolean print) {
+    Random random = new Random(7);
+    List<Collection<Integer>> lists = new ArrayList<Collection<Integer>>();
+    long start = System.nanoTime();
+    for (int degree : degrees) {
+      Collection<Integer> list = factory.create();
+      for (int neighbor = 0; neighbor < degree; neighbor++) {
+        list.add(neighbor);
+      }
+      lists.add(list);
+    }
+    long build = System.nanoTime() - start;
+
+    int probes = 0;
+    int hits = 0;
+    start = System.nanoTime();
+    for (int i = 0; i < degrees.length; i++) {
+      Collection<Integer> list = lists.get(i);
+      int listProbes = Math.min(degrees[i], MAX_PROBES_PER_LIST);
+      for (int probe = 0; probe < listProbes; probe++) {
+        if (list.contains(random.nextInt(degrees[i] * 2))) {
+          hits++;
+        }
+        probes++;
+      }
+    }
+    long contains = System.nanoTime() - start;
+
+    long sum = 0;
+    start = System.nanoTime();
+    for (Collection<Integer> list : lists) {
+      for (Integer neighbor : list) {
+        sum += neighbor;
+      }
+    }
+    long iterate = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    for (int i = 0; i < degrees.length; i++) {
+      Collection<Integer> list = lists.get(i);
+      int[] order = shuffledRange(degrees[i], random);
+      for (int neighbor : order) {
+        list.remove(neighbor);
+      }
+    }
+    long remove = System.nanoTime() - start;
+
+    if (print) {
+      System.out.printf("%-17s %-12s build %7.1f ms  contains %9.1f ns/probe"
+          + "  iterate %6.1f ms  remove %8.1f ms  (%d/%d hits, sum %d)%n",
+          distribution, container, build / 1e6, (double) contains / probes,
+          iterate / 1e6, remove / 1e6, hits, probes, sum);
+    }
+  }
+
+  private static int[] uniformDegrees(int totalNeighbors, int degree) {
+    int[] degrees = new int[totalNeighbors / degree];
+    for (int i = 0; i < degrees.length; i++) {
+      degrees[i] = degree;
+    }
+    return degrees;
+  }
+
+  /***
+   * Draws degrees from a Pareto distribution with exponent 2 until the total
+   * is reached, giving mostly tiny lists and a few very large ones.
+   */
+  private static int[] powerLawDegrees(int totalNeighbors, Random random) {
+    List<Integer> degrees = new ArrayList<Integer>();
+    int remaining = totalNeighbors;
+    while (remaining > 0) {
+      int degree = (int) Math.min(remaining,
+          Math.ceil(1 / Math.sqrt(1 - random.nextDouble())));
+      degrees.add(degree);
+      remaining -= degree;
+    }
+    int[] degreeArray = new int[degrees.size()];
+    for (int i = 0; i < degreeArray.length; i++) {
+      degreeArray[i] = degrees.get(i);
+    }
+    return degreeArray;
+  }
+
+  private static int[] shuffledRange(int size, Random random) {
+    int[] range = new int[size];
+    for (int i = 0; i < size; i++) {
+      range[i] = i;
+    }
+    for (int i = size - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int swap = range[i];
+      range[i] = range[j];
+      range[j] = swap;
+    }
+    return range;
+  }
+}
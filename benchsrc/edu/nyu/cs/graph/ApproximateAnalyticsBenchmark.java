@@ -0,0 +1,150 @@
+package edu.nyu.cs.graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/***
+ * Compares the estimates of ApproximateAnalytics with exact traversals on a
+ * sparse random graph, reporting the time taken by each and the error of the
+ * estimates, and times its union-find component sizes against one BFS per
+ * component. With one edge for every vertex, the graph has one giant
+ * component and many small ones. Run with the number of vertices as the
+ * first argument (default 200000) and the HyperLogLog precision as the
+ * second (default 8).
+ */
+public class ApproximateAnalyticsBenchmark {
+  private static final int EXACT_NEIGHBORHOODS = 500;
+  private static final int HOPS = 3;
+
+  public static void main(String[] args) {
+    int vertexCount = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+    int precision = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+    Random random = new Random(42);
+    UndirectedGraph<Integer> graph = new UndirectedGraph<Integer>();
+    for (int i = 0; i < vertexCount; i++) {
+      graph.addVertex(i);
+    }
+    for (int i = 0; i < vertexCount; i++) {
+      graph.addEdge(random.nextInt(vertexCount), random.nextInt(vertexCount),
+          "");
+    }
+    ApproximateAnalytics<Integer> analytics =
+        new ApproximateAnalytics<Integer>(graph, precision, random);
+    System.out.println("Vertices: " + vertexCount + "  precision: "
+        + precision);
+
+    // Component sizes: one BFS per component against union-find, which
+    // should agree exactly
+    long start = System.nanoTime();
+    Map<Integer, Integer> bfsComponents = componentSizes(graph);
+    long exactTime = System.nanoTime() - start;
+    start = System.nanoTime();
+    Map<Integer, Integer> unionFindComponents = analytics.getComponentSizes();
+    long estimateTime = System.nanoTime() - start;
+    System.out.printf("%-22s bfs   %8.1f ms  union-find %8.1f ms  %s%n",
+        "component sizes", exactTime / 1e6, estimateTime / 1e6,
+        bfsComponents.equals(unionFindComponents) ? "same sizes"
+        : "DIFFERENT SIZES");
+
+    // Neighborhood sizes: exact ego networks of a sample, extrapolated to
+    // every vertex, against estimates for every vertex
+    start = System.nanoTime();
+    Map<Integer, Double> estimatedNeighborhoods =
+        analytics.estimateNeighborhoodSizes(HOPS);
+    estimateTime = System.nanoTime() - start;
+    Map<Integer, Integer> exactNeighborhoods = new HashMap<Integer, Integer>();
+    start = System.nanoTime();
+    for (int vertex : analytics.sampleVertices(EXACT_NEIGHBORHOODS)) {
+      exactNeighborhoods.put(vertex,
+          graph.egoNetwork(vertex, HOPS).getVertices().size());
+    }
+    exactTime = (System.nanoTime() - start) / EXACT_NEIGHBORHOODS
+        * vertexCount;
+    System.out.printf("%-22s exact %8.1f ms  estimate %8.1f ms"
+        + "  mean error %5.1f%%  (exact time extrapolated)%n",
+        HOPS + "-hop neighborhoods", exactTime / 1e6, estimateTime / 1e6,
+        100 * meanRelativeError(exactNeighborhoods, estimatedNeighborhoods));
+
+    // Degree distribution: every vertex against a 1% sample
+    start = System.nanoTime();
+    SortedMap<Integer, Double> exactDegrees = new TreeMap<Integer, Double>();
+    for (int vertex : graph.getVertices()) {
+      int degree = graph.getNeighbors(vertex).size();
+      Double fraction = exactDegrees.get(degree);
+      exactDegrees.put(degree,
+          (fraction == null ? 0 : fraction) + 1.0 / vertexCount);
+    }
+    exactTime = System.nanoTime() - start;
+    start = System.nanoTime();
+    SortedMap<Integer, Double> sampledDegrees =
+        analytics.estimateDegreeDistribution(vertexCount / 100);
+    estimateTime = System.nanoTime() - start;
+    System.out.printf("%-22s exact %8.1f ms  estimate %8.1f ms"
+        + "  total variation %5.3f%n", "degree distribution",
+        exactTime / 1e6, estimateTime / 1e6,
+        totalVariation(exactDegrees, sampledDegrees));
+
+    // Random walk and edge sampling throughput
+    int walkLength = vertexCount * 10;
+    start = System.nanoTime();
+    List<Integer> walk = analytics.sampleRandomWalk(0, walkLength, 1000);
+    long walkTime = System.nanoTime() - start;
+    start = System.nanoTime();
+    int edges = analytics.sampleEdges(1000).size();
+    long edgeTime = System.nanoTime() - start;
+    System.out.printf("%-22s %8.1f M steps/s  (%d sampled)%n", "random walk",
+        walkLength / (walkTime / 1e3), walk.size());
+    System.out.printf("%-22s %8.1f ms  (%d sampled)%n", "edge sample",
+        edgeTime / 1e6, edges);
+  }
+
+  private static Map<Integer, Integer> componentSizes(
+      UndirectedGraph<Integer> graph) {
+    Map<Integer, Integer> sizes = new HashMap<Integer, Integer>();
+    for (int vertex : graph.getVertices()) {
+      if (sizes.containsKey(vertex)) {
+        continue;
+      }
+      List<Integer> component = new ArrayList<Integer>();
+      for (Iterator<Integer> iter = graph.bfsIterator(vertex);
+          iter.hasNext();) {
+        component.add(iter.next());
+      }
+      for (int member : component) {
+        sizes.put(member, component.size());
+      }
+    }
+    return sizes;
+  }
+
+  private static double meanRelativeError(Map<Integer, Integer> exact,
+      Map<Integer, Double> estimated) {
+    double total = 0;
+    for (Map.Entry<Integer, Integer> entry : exact.entrySet()) {
+      total += Math.abs(estimated.get(entry.getKey()) - entry.getValue())
+          / entry.getValue();
+    }
+    return total / exact.size();
+  }
+
+  private static double totalVariation(Map<Integer, Double> exact,
+      Map<Integer, Double> estimated) {
+    Set<Integer> degrees = new HashSet<Integer>(exact.keySet());
+    degrees.addAll(estimated.keySet());
+    double total = 0;
+    for (Integer degree : degrees) {
+      double p = exact.containsKey(degree) ? exact.get(degree) : 0;
+      double q = estimated.containsKey(degree) ? estimated.get(degree) : 0;
+      total += Math.abs(p - q);
+    }
+    return total / 2;
+  }
+}
@@ -0,0 +1,180 @@
+package edu.nyu.cs.graph;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/***
+ * Measures traversal and neighbor-scan throughput of graphs before and
+ * after reordering their vertices. The first test graph is a square grid
+ * with a few random long-range edges, like a road network. The second is a
+ * preferential attachment graph with the same number of vertices, whose
+ * skewed degrees, like a social network's, stress orderings that look at
+ * the neighbors of neighbors. Both are labelled in a scrambled order so that
+ * hash order has nothing to do with their shape. Run with the side length
+ * of the grid as the only argument (default 300). Each measurement is the
+ * best of several runs after a warm-up.
+ */
+public class ReorderingBenchmark {
+  private static final int RUNS = 5;
+  private static final int EDGES_PER_NEW_VERTEX = 4;
+
+  public static void main(String[] args) {
+    int side = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+    System.out.println("Grid, vertices: " + side * side);
+    benchmark(buildGrid(side, new Random(42)), side * side);
+    System.out.println("Preferential attachment, vertices: " + side * side);
+    benchmark(buildPreferentialAttachment(side * side, new Random(42)),
+        side * side);
+  }
+
+  private static void benchmark(UndirectedGraph<Integer> graph,
+      int vertexCount) {
+    long best = Long.MAX_VALUE;
+    for (int run = 0; run < RUNS; run++) {
+      long start = System.nanoTime();
+      int visited = drain(graph.bfsIterator(0));
+      best = Math.min(best, System.nanoTime() - start);
+      check(visited, vertexCount);
+    }
+    System.out.printf("%-22s bfs %8.1f ms%n", "UndirectedGraph", best / 1e6);
+
+    Map<String, VertexOrdering<Integer>> orderings =
+        new LinkedHashMap<String, VertexOrdering<Integer>>();
+    orderings.put("hash order", null);
+    orderings.put("degree", new DegreeOrdering<Integer>());
+    orderings.put("reverse Cuthill-McKee", new CuthillMcKeeOrdering<Integer>());
+    orderings.put("rabbit", new RabbitOrdering<Integer>());
+    orderings.put("gorder", new GorderOrdering<Integer>());
+    for (Map.Entry<String, VertexOrdering<Integer>> entry
+        : orderings.entrySet()) {
+      long start = System.nanoTime();
+      CompactGraph<Integer> compact = entry.getValue() == null
+          ? graph.freeze() : graph.freeze(entry.getValue());
+      long freezeTime = System.nanoTime() - start;
+      long bestBfs = Long.MAX_VALUE;
+      long bestScan = Long.MAX_VALUE;
+      for (int run = 0; run < RUNS; run++) {
+        start = System.nanoTime();
+        check(drain(compact.bfsIterator(0)), vertexCount);
+        bestBfs = Math.min(bestBfs, System.nanoTime() - start);
+        start = System.nanoTime();
+        scanNeighbors(compact);
+        bestScan = Math.min(bestScan, System.nanoTime() - start);
+      }
+      System.out.printf(
+          "%-22s bfs %8.1f ms  scan %6.1f M edges/s  freeze %8.1f ms"
+          + "  avg gap %9.1f%n", entry.getKey(), bestBfs / 1e6,
+          scanNeighbors(compact) / (bestScan / 1e3), freezeTime / 1e6,
+          compact.getAverageNeighborGap());
+    }
+  }
+
+  private static UndirectedGraph<Integer> buildGrid(int side, Random random) {
+    int vertexCount = side * side;
+    int[] labels = scrambledLabels(vertexCount, random);
+    UndirectedGraph<Integer> graph = new UndirectedGraph<Integer>();
+    for (int i = 0; i < vertexCount; i++) {
+      graph.addVertex(i);
+    }
+    for (int row = 0; row < side; row++) {
+      for (int col = 0; col < side; col++) {
+        int vertex = labels[row * side + col];
+        if (col + 1 < side) {
+          graph.addEdge(vertex, labels[row * side + col + 1], "");
+        } if (row + 1 < side) {
+          graph.addEdge(vertex, labels[(row + 1) * side + col], "");
+        }
+      }
+    }
+    for (int i = 0; i < vertexCount / 100; i++) {
+      graph.addEdge(random.nextInt(vertexCount), random.nextInt(vertexCount),
+          "shortcut");
+    }
+    return graph;
+  }
+
+  /***
+   * Builds a Barabasi-Albert graph: each new vertex connects to a few
+   * existing vertices chosen with probability proportional to their degree,
+   * which gives a few hubs and a long tail of low-degree vertices. Picking a
+   * random end of a random earlier edge gives the degree-proportional
+   * choice.
+   */
+  private static UndirectedGraph<Integer> buildPreferentialAttachment(
+      int vertexCount, Random random) {
+    int[] labels = scrambledLabels(vertexCount, random);
+    UndirectedGraph<Integer> graph = new UndirectedGraph<Integer>();
+    for (int i = 0; i < vertexCount; i++) {
+      graph.addVertex(labels[i]);
+    }
+    int[] edgeEnds = new int[2 * EDGES_PER_NEW_VERTEX * vertexCount];
+    int edgeEndCount = 0;
+    for (int i = 1; i < vertexCount; i++) {
+      for (int edge = 0; edge < EDGES_PER_NEW_VERTEX; edge++) {
+        int target = edgeEndCount == 0 ? 0
+            : edgeEnds[random.nextInt(edgeEndCount)];
+        if (target != i && !graph.hasEdge(labels[i], labels[target])) {
+          graph.addEdge(labels[i], labels[target], "");
+          edgeEnds[edgeEndCount++] = i;
+          edgeEnds[edgeEndCount++] = target;
+        }
+      }
+    }
+    return graph;
+  }
+
+  private static int[] scrambledLabels(int vertexCount, Random random) {
+    int[] labels = new int[vertexCount];
+    for (int i = 0; i < vertexCount; i++) {
+      labels[i] = i;
+    }
+    for (int i = vertexCount - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int swap = labels[i];
+      labels[i] = labels[j];
+      labels[j] = swap;
+    }
+    return labels;
+  }
+
+  private static int drain(Iterator<Integer> iter) {
+    int count = 0;
+    while (iter.hasNext()) {
+      iter.next();
+      count++;
+    }
+    return count;
+  }
+
+  /***
+   * Sums a per-vertex value over the neighbors of every vertex, the access
+   * pattern of pull-style algorithms like PageRank, and returns the number
+   * of neighbors read. The values are read in neighbor id order, so this is
+   * where the ordering shows. The sum is checked so the JIT can't drop the
+   * loop.
+   */
+  private static long scanNeighbors(CompactGraph<Integer> graph) {
+    int[] values = new int[graph.getVertexCount()];
+    for (int id = 0; id < values.length; id++) {
+      values[id] = graph.getDegree(id);
+    }
+    long sum = 0;
+    long edges = 0;
+    for (int id = 0; id < values.length; id++) {
+      int degree = values[id];
+      for (int i = 0; i < degree; i++) {
+        sum += values[graph.getNeighborId(id, i)];
+      }
+      edges += degree;
+    }
+    return sum == -1 ? -1 : edges;
+  }
+
+  private static void check(int visited, int vertexCount) {
+    if (visited != vertexCount) {
+      throw new IllegalStateException("Traversal missed vertices");
+    }
+  }
+}
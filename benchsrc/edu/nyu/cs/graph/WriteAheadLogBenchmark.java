@@ -0,0 +1,124 @@
+package edu.nyu.cs.graph;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/***
+ * Measures DurableGraph mutation throughput for several group commit sizes,
+ * with an fsync for every batch, and the time it takes to recover a graph
+ * from a long log, with and without a checkpoint. Run with the number of
+ * vertices as the only argument (default 100000); about four mutations are
+ * made per vertex. The files are written to a temporary directory, so run
+ * it on the disk you care about by setting java.io.tmpdir.
+ */
+public class WriteAheadLogBenchmark {
+  private static final int NO_CHECKPOINTS = Integer.MAX_VALUE;
+
+  public static void main(String[] args) throws IOException {
+    int vertexCount = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+
+    // Syncing every mutation is slow enough that a smaller run shows it
+    int[] groupCommitSizes = {1, 16, 256, 4096};
+    for (int groupCommitSize : groupCommitSizes) {
+      int vertices = groupCommitSize == 1
+          ? Math.min(vertexCount, 2000) : vertexCount;
+      Path directory = Files.createTempDirectory("wal-benchmark");
+      try {
+        DurableGraph<Integer> graph = new DurableGraph<Integer>(directory,
+            VertexCodec.INTEGERS, groupCommitSize, NO_CHECKPOINTS);
+        long start = System.nanoTime();
+        long mutations = mutate(graph, vertices, new Random(42));
+        graph.close();
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("group commit %5d: %9.0f mutations/s%n",
+            groupCommitSize, mutations / (elapsed / 1e9));
+      } finally {
+        delete(directory);
+      }
+    }
+
+    Path directory = Files.createTempDirectory("wal-benchmark");
+    try {
+      DurableGraph<Integer> graph = new DurableGraph<Integer>(directory,
+          VertexCodec.INTEGERS, 4096, NO_CHECKPOINTS);
+      long mutations = mutate(graph, vertexCount, new Random(42));
+      graph.close();
+      System.out.printf("recovery from a log of %d mutations (%.1f MB): "
+          + "%.0f ms%n", mutations, directorySize(directory) / 1e6,
+          timeRecovery(directory) / 1e6);
+
+      graph = new DurableGraph<Integer>(directory, VertexCodec.INTEGERS, 4096,
+          NO_CHECKPOINTS);
+      graph.checkpoint();
+      graph.close();
+      System.out.printf("recovery from a checkpoint (%.1f MB): %.0f ms%n",
+          directorySize(directory) / 1e6, timeRecovery(directory) / 1e6);
+    } finally {
+      delete(directory);
+    }
+  }
+
+  /***
+   * Adds the vertices, three random edges per vertex, then removes a tenth
+   * of the edges again, and returns the number of mutations made.
+   */
+  private static long mutate(UndirectedGraph<Integer> graph, int vertexCount,
+      Random random) {
+    long mutations = 0;
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      graph.addVertex(vertex);
+      mutations++;
+    }
+    int[] edges = new int[vertexCount * 6];
+    for (int i = 0; i < edges.length; i += 2) {
+      edges[i] = random.nextInt(vertexCount);
+      edges[i + 1] = random.nextInt(vertexCount);
+      graph.addEdge(edges[i], edges[i + 1], "edge " + i);
+      mutations++;
+    }
+    for (int i = 0; i < edges.length; i += 20) {
+      if (graph.hasEdge(edges[i], edges[i + 1])) {
+        graph.removeEdge(edges[i], edges[i + 1]);
+        mutations++;
+      }
+    }
+    return mutations;
+  }
+
+  private static long timeRecovery(Path directory) throws IOException {
+    long start = System.nanoTime();
+    DurableGraph<Integer> graph =
+        new DurableGraph<Integer>(directory, VertexCodec.INTEGERS);
+    long elapsed = System.nanoTime() - start;
+    graph.close();
+    return elapsed;
+  }
+
+  private static long directorySize(Path directory) throws IOException {
+    long size = 0;
+    DirectoryStream<Path> files = Files.newDirectoryStream(directory);
+    try {
+      for (Path file : files) {
+        size += Files.size(file);
+      }
+    } finally {
+      files.close();
+    }
+    return size;
+  }
+
+  private static void delete(Path directory) throws IOException {
+    DirectoryStream<Path> files = Files.newDirectoryStream(directory);
+    try {
+      for (Path file : files) {
+        Files.delete(file);
+      }
+    } finally {
+      files.close();
+    }
+    Files.delete(directory);
+  }
+}
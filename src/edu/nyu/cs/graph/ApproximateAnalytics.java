@@ -0,0 +1,426 @@
+package edu.nyu.cs.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/***
+ * Approximate analytics for graphs too large to traverse exactly for every
+ * query. Neighborhood sizes are estimated with HyperANF: every vertex gets a
+ * HyperLogLog counter holding only itself, and in each round every counter
+ * is merged with the counters of its neighbors, so after k rounds a vertex's
+ * counter estimates the number of vertices within k hops of it. Each round
+ * costs one pass over the edges. The default precision of 8 gives a relative
+ * standard error of about 6.5%. Component sizes don't need estimating, since
+ * a single pass of union-find over the edges gives them exactly.
+ *
+ * The estimates need two things in memory. The first is an index of the
+ * graph: every vertex's neighbors as an array of int ids, 4 bytes per edge
+ * end plus an array header per vertex. Building it also takes a temporary
+ * map from vertex to id. The index is built on first use and kept until a
+ * vertex or edge is added or removed, and is shared with getComponentSizes().
+ * The second is two sets of counters,
+ * 2 * 2^precision bytes per vertex (512 bytes at the default precision),
+ * which are only held while a method runs and don't grow with the
+ * neighborhoods. The sampling methods run in time linear in the graph at
+ * most and keep only the sample in memory, using reservoir sampling. The
+ * analytics read the graph as it is when a method is called, and the graph
+ * must not be changed while a method runs.
+ *
+ * @param <T> Type of vertex stored in the graph
+ */
+public class ApproximateAnalytics<T> {
+  private static final int DEFAULT_PRECISION = 8;
+  // Counters are allocated in chunks of at most 2^CHUNK_BITS bytes
+  private static final int CHUNK_BITS = 26;
+
+  private final UndirectedGraph<T> graph;
+  private final int precision;
+  private final Random random;
+  private IndexedAdjacency<T> adjacency;
+  private int adjacencyModCount;
+
+  public ApproximateAnalytics(UndirectedGraph<T> graph) {
+    this(graph, DEFAULT_PRECISION, new Random());
+  }
+
+  /***
+   * @param graph Graph to analyze
+   * @param precision Base 2 logarithm of the number of registers in each
+   *     HyperLogLog counter, between 4 and 16
+   * @param random Source of randomness for hashing and sampling
+   */
+  public ApproximateAnalytics(UndirectedGraph<T> graph, int precision,
+      Random random) {
+    if (graph == null) {
+      throw new NullPointerException("Graph passed is null");
+    } if (random == null) {
+      throw new NullPointerException("Random passed is null");
+    } if (precision < HyperLogLog.MIN_PRECISION
+        || precision > HyperLogLog.MAX_PRECISION) {
+      throw new IllegalArgumentException("Precision must be between "
+          + HyperLogLog.MIN_PRECISION + " and " + HyperLogLog.MAX_PRECISION);
+    }
+    this.graph = graph;
+    this.precision = precision;
+    this.random = random;
+  }
+
+  /***
+   * Estimates, for every vertex, the number of vertices at most the given
+   * number of hops away from it, including the vertex itself.
+   * @param hops Maximum distance from each vertex
+   * @return Map from every vertex to its estimated neighborhood size
+   */
+  public Map<T, Double> estimateNeighborhoodSizes(int hops) {
+    if (hops < 0) {
+      throw new IllegalArgumentException("Hops can't be negative");
+    }
+    return new NeighborhoodCounters(hops, false).vertexEstimates();
+  }
+
+  /***
+   * Estimates the neighborhood function of the graph: for each distance t
+   * up to maxHops, the number of ordered pairs of vertices at most t hops
+   * apart, counting every vertex as a pair with itself. Dividing by the
+   * number of vertices gives the average neighborhood size. The array ends
+   * at maxHops or at the last distance where the neighborhoods still grew,
+   * whichever comes first, so its length is at most the diameter plus one,
+   * and the function stays at its last value for every larger distance.
+   * @param maxHops Largest distance to estimate
+   * @return Array whose element t is the estimated number of pairs within
+   *     t hops
+   */
+  public double[] estimateNeighborhoodFunction(int maxHops) {
+    if (maxHops < 0) {
+      throw new IllegalArgumentException("Hops can't be negative");
+    }
+    return new NeighborhoodCounters(maxHops, true).function;
+  }
+
+  /***
+   * Returns the size of the connected component of every vertex, computed
+   * exactly with union-find over the edges. Besides the index of the graph,
+   * this takes 8 bytes per vertex and time nearly linear in the graph.
+   * @return Map from every vertex to the size of its component
+   */
+  public Map<T, Integer> getComponentSizes() {
+    IndexedAdjacency<T> adjacency = adjacency();
+    int[] parents = new int[adjacency.size()];
+    int[] sizes = new int[adjacency.size()];
+    for (int id = 0; id < parents.length; id++) {
+      parents[id] = id;
+      sizes[id] = 1;
+    }
+    for (int id = 0; id < parents.length; id++) {
+      for (int neighbor : adjacency.neighbors[id]) {
+        int root = findRoot(parents, id);
+        int neighborRoot = findRoot(parents, neighbor);
+        if (root == neighborRoot) {
+          continue;
+        } if (sizes[root] < sizes[neighborRoot]) {
+          int swap = root;
+          root = neighborRoot;
+          neighborRoot = swap;
+        }
+        // The smaller tree goes under the larger, which keeps paths short
+        parents[neighborRoot] = root;
+        sizes[root] += sizes[neighborRoot];
+      }
+    }
+    Map<T, Integer> componentSizes = new HashMap<T, Integer>();
+    for (int id = 0; id < parents.length; id++) {
+      componentSizes.put(adjacency.vertices.get(id),
+          sizes[findRoot(parents, id)]);
+    }
+    return componentSizes;
+  }
+
+  /***
+   * Returns the root of the union-find tree holding an id, pointing every
+   * other node on the way at its grandparent (path halving).
+   */
+  private static int findRoot(int[] parents, int id) {
+    while (parents[id] != id) {
+      parents[id] = parents[parents[id]];
+      id = parents[id];
+    }
+    return id;
+  }
+
+  /***
+   * Returns vertices chosen uniformly at random without replacement. If
+   * the sample size is at least the number of vertices, every vertex is
+   * returned.
+   * @param sampleSize Number of vertices to choose
+   * @return The sampled vertices
+   */
+  public List<T> sampleVertices(int sampleSize) {
+    return reservoirSample(graph.verticesView().iterator(), sampleSize);
+  }
+
+  /***
+   * Returns edges chosen uniformly at random without replacement, each as a
+   * list of its two vertices. A self-edge is returned as a list holding its
+   * vertex twice. If the sample size is at least the number of edges, every
+   * edge is returned.
+   * @param sampleSize Number of edges to choose
+   * @return The sampled edges
+   */
+  public List<List<T>> sampleEdges(int sampleSize) {
+    List<Set<T>> edges =
+        reservoirSample(graph.edgesView().iterator(), sampleSize);
+    List<List<T>> sample = new ArrayList<List<T>>(edges.size());
+    for (Set<T> edge : edges) {
+      List<T> vertices = new ArrayList<T>(edge);
+      if (vertices.size() == 1) {
+        vertices.add(vertices.get(0));
+      }
+      sample.add(vertices);
+    }
+    return sample;
+  }
+
+  /***
+   * Takes a random walk from a vertex and returns a uniform sample of the
+   * steps of the walk. At each step the walk moves to a random neighbor, or
+   * jumps back to the start from a vertex without neighbors. Since a long
+   * walk visits each vertex of a connected graph in proportion to its
+   * degree, this is a degree-biased sample of the start's component, and a
+   * vertex can appear more than once. Only the sample is kept in memory, and
+   * every step takes constant time.
+   * @param startingVertex First vertex of the walk
+   * @param walkLength Number of steps in the walk
+   * @param sampleSize Number of steps to sample
+   * @return Vertices at the sampled steps
+   */
+  public List<T> sampleRandomWalk(T startingVertex, int walkLength,
+      int sampleSize) {
+    if (startingVertex == null) {
+      throw new NullPointerException("Starting vertex is null");
+    } if (!graph.containsVertex(startingVertex)) {
+      throw new IllegalArgumentException("Vertex is not in the graph");
+    } if (walkLength < 0) {
+      throw new IllegalArgumentException("Walk length can't be negative");
+    }
+    return reservoirSample(new RandomWalk(startingVertex, walkLength),
+        sampleSize);
+  }
+
+  /***
+   * Estimates the degree distribution of the graph from a uniform sample of
+   * its vertices. Self-edges count once toward the degree, as in
+   * getNeighbors().
+   * @param sampleSize Number of vertices to sample
+   * @return Map from each degree seen in the sample to the estimated
+   *     fraction of vertices with that degree, in increasing degree order
+   */
+  public SortedMap<Integer, Double> estimateDegreeDistribution(
+      int sampleSize) {
+    List<T> sample = sampleVertices(sampleSize);
+    SortedMap<Integer, Double> distribution = new TreeMap<Integer, Double>();
+    for (T vertex : sample) {
+      int degree = graph.neighborsView(vertex).size();
+      Double fraction = distribution.get(degree);
+      distribution.put(degree,
+          (fraction == null ? 0 : fraction) + 1.0 / sample.size());
+    }
+    return distribution;
+  }
+
+  /***
+   * Returns up to sampleSize items chosen uniformly at random from the
+   * iterator (Algorithm R), reading it only once.
+   */
+  private <E> List<E> reservoirSample(Iterator<E> items, int sampleSize) {
+    if (sampleSize < 0) {
+      throw new IllegalArgumentException("Sample size can't be negative");
+    }
+    List<E> reservoir = new ArrayList<E>();
+    long seen = 0;
+    while (items.hasNext()) {
+      E item = items.next();
+      seen++;
+      if (reservoir.size() < sampleSize) {
+        reservoir.add(item);
+      } else {
+        long slot = (long) (random.nextDouble() * seen);
+        if (slot < sampleSize) {
+          reservoir.set((int) slot, item);
+        }
+      }
+    }
+    return reservoir;
+  }
+
+  /***
+   * Steps of a random walk, generated as they are read.
+   */
+  private class RandomWalk implements Iterator<T> {
+    private final T startingVertex;
+    private int stepsLeft;
+    private T current;
+
+    RandomWalk(T startingVertex, int walkLength) {
+      this.startingVertex = startingVertex;
+      stepsLeft = walkLength;
+      current = startingVertex;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return stepsLeft > 0;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException("No more elements in the Iterator");
+      }
+      T step = current;
+      stepsLeft--;
+      if (graph.neighborsView(current).isEmpty()) {
+        current = startingVertex;
+      } else {
+        current = graph.randomNeighbor(current, random);
+      }
+      return step;
+    }
+  }
+
+  /***
+   * Returns the indexed adjacency of the graph, building it again only if
+   * vertices or edges have been added or removed since it was last built.
+   */
+  private IndexedAdjacency<T> adjacency() {
+    if (adjacency == null || adjacencyModCount != graph.modCount()) {
+      adjacency = new IndexedAdjacency<T>(graph);
+      adjacencyModCount = graph.modCount();
+    }
+    return adjacency;
+  }
+
+  /***
+   * Runs HyperANF rounds until the given number of hops is reached or no
+   * counter changes. Only vertices with a neighbor whose counter changed in
+   * the last round need to be updated, which makes the later rounds cheap.
+   * Summing the counters for the neighborhood function reads every counter,
+   * so it is only done when asked for. The counters are split into chunks
+   * of at most 2^CHUNK_BITS bytes, each holding a power of two counters, so
+   * the number of vertices isn't limited by the size of one array.
+   */
+  private class NeighborhoodCounters {
+    private final IndexedAdjacency<T> adjacency;
+    private final int chunkShift;
+    private final int chunkMask;
+    private byte[][] counters;
+    private final double[] function;
+
+    NeighborhoodCounters(int maxHops, boolean computeFunction) {
+      adjacency = adjacency();
+      int vertexCount = adjacency.size();
+      chunkShift = CHUNK_BITS - precision;
+      chunkMask = (1 << chunkShift) - 1;
+      counters = allocate(vertexCount);
+      long seed = random.nextLong();
+      for (int id = 0; id < vertexCount; id++) {
+        HyperLogLog.add(chunk(counters, id), offset(id), precision,
+            HyperLogLog.hash(id, seed));
+      }
+
+      List<Double> functionValues = new ArrayList<Double>();
+      if (computeFunction) {
+        functionValues.add(total());
+      }
+      byte[][] next = allocate(vertexCount);
+      boolean[] changed = new boolean[vertexCount];
+      boolean[] nextChanged = new boolean[vertexCount];
+      Arrays.fill(changed, true);
+      int registerCount = 1 << precision;
+      boolean anyChanged = true;
+      for (int hop = 1; hop <= maxHops && anyChanged; hop++) {
+        // next holds the previous round, so only the rows that changed in
+        // the last round need to be brought up to date
+        for (int id = 0; id < vertexCount; id++) {
+          if (changed[id]) {
+            System.arraycopy(chunk(counters, id), offset(id), chunk(next, id),
+                offset(id), registerCount);
+          }
+        }
+        anyChanged = false;
+        for (int id = 0; id < vertexCount; id++) {
+          nextChanged[id] = false;
+          byte[] target = chunk(next, id);
+          int targetOffset = offset(id);
+          for (int neighbor : adjacency.neighbors[id]) {
+            if (changed[neighbor] && HyperLogLog.union(target, targetOffset,
+                chunk(counters, neighbor), offset(neighbor), precision)) {
+              nextChanged[id] = true;
+            }
+          }
+          anyChanged |= nextChanged[id];
+        }
+        byte[][] swapCounters = counters;
+        counters = next;
+        next = swapCounters;
+        boolean[] swapChanged = changed;
+        changed = nextChanged;
+        nextChanged = swapChanged;
+        if (computeFunction && anyChanged) {
+          functionValues.add(total());
+        }
+      }
+      function = new double[functionValues.size()];
+      for (int hop = 0; hop < function.length; hop++) {
+        function[hop] = functionValues.get(hop);
+      }
+    }
+
+    private byte[][] allocate(int vertexCount) {
+      int chunkCount = (int) (((long) vertexCount + chunkMask) >>> chunkShift);
+      byte[][] chunks = new byte[chunkCount][];
+      for (int chunk = 0; chunk < chunkCount; chunk++) {
+        int countersInChunk = Math.min(chunkMask + 1,
+            vertexCount - (chunk << chunkShift));
+        chunks[chunk] = new byte[countersInChunk << precision];
+      }
+      return chunks;
+    }
+
+    private byte[] chunk(byte[][] chunks, int id) {
+      return chunks[id >>> chunkShift];
+    }
+
+    private int offset(int id) {
+      return (id & chunkMask) << precision;
+    }
+
+    private double estimate(int id) {
+      return HyperLogLog.estimate(chunk(counters, id), offset(id), precision);
+    }
+
+    private double total() {
+      double total = 0;
+      for (int id = 0; id < adjacency.size(); id++) {
+        total += estimate(id);
+      }
+      return total;
+    }
+
+    Map<T, Double> vertexEstimates() {
+      Map<T, Double> estimates = new HashMap<T, Double>();
+      for (int id = 0; id < adjacency.size(); id++) {
+        estimates.put(adjacency.vertices.get(id), estimate(id));
+      }
+      return estimates;
+    }
+  }
+}
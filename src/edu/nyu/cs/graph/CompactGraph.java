@@ -0,0 +1,331 @@
+package edu.nyu.cs.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/***
+ * Immutable, compact snapshot of an UndirectedGraph for fast traversal,
+ * created by UndirectedGraph.freeze(). Vertices are numbered from 0 in the
+ * order chosen by a VertexOrdering, and the neighbors of every vertex are
+ * stored as ids in one shared int array (compressed sparse rows), sorted
+ * by id. A good ordering keeps the rows of neighboring vertices close
+ * together in memory, which matters more for traversal speed than anything
+ * else once the graph no longer fits in cache. The snapshot does not see
+ * later changes to the graph it was created from.
+ *
+ * @param <T> Type of vertex stored in the graph
+ */
+public class CompactGraph<T> {
+  private final List<T> vertices;
+  private final Map<T, Integer> ids;
+  private final int[] offsets;
+  private final int[] targets;
+  private final String[] labels;
+
+  CompactGraph(UndirectedGraph<T> graph, List<T> order) {
+    if (order.size() != graph.vertexCount()) {
+      throw new IllegalArgumentException(
+          "Ordering must contain every vertex exactly once");
+    }
+    vertices = new ArrayList<T>(order);
+    ids = new HashMap<T, Integer>();
+    for (int id = 0; id < vertices.size(); id++) {
+      T vertex = vertices.get(id);
+      if (vertex == null || !graph.containsVertex(vertex)
+          || ids.put(vertex, id) != null) {
+        throw new IllegalArgumentException(
+            "Ordering must contain every vertex exactly once");
+      }
+    }
+
+    offsets = new int[vertices.size() + 1];
+    for (int id = 0; id < vertices.size(); id++) {
+      offsets[id + 1] =
+          offsets[id] + graph.neighborsView(vertices.get(id)).size();
+    }
+    targets = new int[offsets[vertices.size()]];
+    labels = new String[targets.length];
+    long[] row = new long[0];
+    for (int id = 0; id < vertices.size(); id++) {
+      T vertex = vertices.get(id);
+      int degree = offsets[id + 1] - offsets[id];
+      if (row.length < degree) {
+        row = new long[degree];
+      }
+      // Sort neighbor ids together with their position in the adjacency
+      // list so the labels can be looked up in the same order
+      List<T> neighbors = new ArrayList<T>(graph.neighborsView(vertex));
+      for (int i = 0; i < degree; i++) {
+        row[i] = ((long) ids.get(neighbors.get(i)) << 32) | i;
+      }
+      Arrays.sort(row, 0, degree);
+      for (int i = 0; i < degree; i++) {
+        T neighbor = neighbors.get((int) row[i]);
+        targets[offsets[id] + i] = (int) (row[i] >>> 32);
+        labels[offsets[id] + i] = graph.edgeValueOrNull(vertex, neighbor);
+      }
+    }
+  }
+
+  /***
+   * Returns the number of vertices in the graph.
+   * @return Number of vertices
+   */
+  public int getVertexCount() {
+    return vertices.size();
+  }
+
+  /***
+   * Returns List of all vertices in the graph, in id order
+   * @return Returns List of all vertices in the graph
+   */
+  public List<T> getVertices() {
+    return new ArrayList<T>(vertices);
+  }
+
+  /***
+   * Returns true a vertex is present in the graph, false otherwise
+   * @param vertex Vertex that may or may not be in the graph
+   * @return Returns true a vertex is present in the graph, false otherwise
+   */
+  public boolean containsVertex(T vertex) {
+    if (vertex == null) {
+      throw new NullPointerException("Vertex passed is null");
+    }
+    return ids.containsKey(vertex);
+  }
+
+  /***
+   * Returns the id of a vertex. Use containsVertex() to avoid runtime
+   * exceptions.
+   * @param vertex Vertex to look up
+   * @return Id of the vertex, in the range [0, getVertexCount())
+   */
+  public int getId(T vertex) {
+    if (!containsVertex(vertex)) {
+      throw new IllegalArgumentException("Vertex not in the graph");
+    }
+    return ids.get(vertex);
+  }
+
+  /***
+   * Returns the vertex with an id.
+   * @param id Id of the vertex, in the range [0, getVertexCount())
+   * @return The vertex
+   */
+  public T getVertex(int id) {
+    checkId(id);
+    return vertices.get(id);
+  }
+
+  /***
+   * Returns the number of neighbors of the vertex with an id.
+   * @param id Id of the vertex
+   * @return Number of neighbors, counting a self-edge once
+   */
+  public int getDegree(int id) {
+    checkId(id);
+    return offsets[id + 1] - offsets[id];
+  }
+
+  /***
+   * Returns the id of one neighbor of a vertex. Together with getDegree()
+   * this scans neighbors without allocating anything. Neighbors are in
+   * increasing id order.
+   * @param id Id of the vertex
+   * @param index Index of the neighbor, in the range [0, getDegree(id))
+   * @return Id of the neighbor
+   */
+  public int getNeighborId(int id, int index) {
+    if (index < 0 || index >= getDegree(id)) {
+      throw new IndexOutOfBoundsException("No neighbor at index " + index);
+    }
+    return targets[offsets[id] + index];
+  }
+
+  /***
+   * Returns a list of the neighbors of the passed vertex, in id order. Use
+   * in conjunction with containsVertex() to avoid exceptions at runtime.
+   * @param vertex Value of the vertex whose neighbors you're looking for.
+   * @return List of the neighbors of the argument.
+   */
+  public List<T> getNeighbors(T vertex) {
+    int id = getId(vertex);
+    List<T> neighbors = new ArrayList<T>(offsets[id + 1] - offsets[id]);
+    for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+      neighbors.add(vertices.get(targets[i]));
+    }
+    return neighbors;
+  }
+
+  /***
+   * Returns whether an edge exists between two vertices. Vertex order does
+   * not matter.
+   * @param vertex1 First vertex of the vertex pair
+   * @param vertex2 Second vertex of the vertex pair
+   * @return true if an edge exists between the two vertices, false if not
+   */
+  public boolean hasEdge(T vertex1, T vertex2) {
+    return containsVertex(vertex1) && containsVertex(vertex2)
+        && edgeIndex(ids.get(vertex1), ids.get(vertex2)) >= 0;
+  }
+
+  /***
+   * Returns the value of an edge between two vertices. Vertex order does not
+   * matter. Throws an IllegalArgumentException if there isn't an edge
+   * between the vertices. Use hasEdge() to avoid runtime exceptions.
+   * @param vertex1 First vertex of the edge pair
+   * @param vertex2 Second vertex of the edge pair
+   * @return Value of the String associated with the edge between the vertices
+   */
+  public String getEdge(T vertex1, T vertex2) {
+    int index = edgeIndex(getId(vertex1), getId(vertex2));
+    if (index < 0) {
+      throw new IllegalArgumentException("The vertices aren't connected");
+    }
+    return labels[index];
+  }
+
+  /***
+   * Returns BreadthFirstSearch iterator starting from the provided vertex,
+   * visiting neighbors in id order. An exception will be thrown if the
+   * vertex provided is null or isn't in the graph.
+   * @param startingVertex First vertex in the traversal
+   * @return Breadth-first iterator of the vertices in the graph
+   */
+  public Iterator<T> bfsIterator(T startingVertex) {
+    return new CompactBreadthFirstIterator(getId(startingVertex));
+  }
+
+  /***
+   * Returns DepthFirstSearch iterator starting from the provided vertex,
+   * visiting neighbors in id order. An exception will be thrown if the
+   * vertex provided is null or isn't in the graph.
+   * @param startingVertex First vertex in the traversal
+   * @return Depth-first iterator of the vertices in the graph
+   */
+  public Iterator<T> dfsIterator(T startingVertex) {
+    return new CompactDepthFirstIterator(getId(startingVertex));
+  }
+
+  /***
+   * Returns the average distance between the ids of the two ends of an
+   * edge. The smaller it is, the better the ordering keeps neighbors close
+   * together in memory.
+   * @return Average id gap over all edges, 0 for a graph without edges
+   */
+  public double getAverageNeighborGap() {
+    if (targets.length == 0) {
+      return 0;
+    }
+    long totalGap = 0;
+    for (int id = 0; id < vertices.size(); id++) {
+      for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+        totalGap += Math.abs(targets[i] - id);
+      }
+    }
+    return (double) totalGap / targets.length;
+  }
+
+  /***
+   * Returns the index in targets of the edge between two ids, or a negative
+   * number if there isn't one.
+   */
+  private int edgeIndex(int id1, int id2) {
+    return Arrays.binarySearch(targets, offsets[id1], offsets[id1 + 1], id2);
+  }
+
+  private void checkId(int id) {
+    if (id < 0 || id >= vertices.size()) {
+      throw new IndexOutOfBoundsException("No vertex with id " + id);
+    }
+  }
+
+  private class CompactBreadthFirstIterator implements Iterator<T> {
+    private final boolean[] visited;
+    private final int[] queue;
+    private int head;
+    private int tail;
+
+    CompactBreadthFirstIterator(int startingId) {
+      visited = new boolean[vertices.size()];
+      queue = new int[vertices.size()];
+      queue[tail++] = startingId;
+      visited[startingId] = true;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return head < tail;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException("No more elements in the Iterator");
+      }
+      int id = queue[head++];
+      for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+        if (!visited[targets[i]]) {
+          visited[targets[i]] = true;
+          queue[tail++] = targets[i];
+        }
+      }
+      return vertices.get(id);
+    }
+  }
+
+  private class CompactDepthFirstIterator implements Iterator<T> {
+    private final boolean[] visited;
+    private final int[] stack;
+    // Position in the row of each vertex on the stack to resume scanning at
+    private final int[] resumeAt;
+    private int top;
+    private int nextId;
+
+    CompactDepthFirstIterator(int startingId) {
+      visited = new boolean[vertices.size()];
+      stack = new int[vertices.size()];
+      resumeAt = new int[vertices.size()];
+      nextId = startingId;
+      visited[startingId] = true;
+      stack[top++] = startingId;
+      resumeAt[startingId] = offsets[startingId];
+    }
+
+    @Override
+    public boolean hasNext() {
+      return nextId >= 0;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException("No more elements in the Iterator");
+      }
+      T nextElement = vertices.get(nextId);
+      nextId = -1;
+      while (top > 0 && nextId < 0) {
+        int id = stack[top - 1];
+        int end = offsets[id + 1];
+        while (resumeAt[id] < end && visited[targets[resumeAt[id]]]) {
+          resumeAt[id]++;
+        }
+        if (resumeAt[id] == end) {
+          top--;
+        } else {
+          nextId = targets[resumeAt[id]];
+          visited[nextId] = true;
+          resumeAt[nextId] = offsets[nextId];
+          stack[top++] = nextId;
+        }
+      }
+      return nextElement;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package edu.nyu.cs.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/***
+ * Orders vertices from the highest degree to the lowest. The hubs, which
+ * most traversals touch over and over, end up packed together at the start
+ * of the graph. Vertices of equal degree keep the iteration order of the
+ * graph.
+ *
+ * @param <T> Type of vertex stored in the graph
+ */
+public class DegreeOrdering<T> implements VertexOrdering<T> {
+
+  @Override
+  public List<T> order(final UndirectedGraph<T> graph) {
+    List<T> vertices = new ArrayList<T>(graph.getVertices());
+    // Collections.sort is stable, so ties keep their order
+    Collections.sort(vertices, new Comparator<T>() {
+      @Override
+      public int compare(T vertex1, T vertex2) {
+        int degree1 = graph.neighborsView(vertex1).size();
+        int degree2 = graph.neighborsView(vertex2).size();
+        return degree1 < degree2 ? 1 : (degree1 == degree2 ? 0 : -1);
+      }
+    });
+    return vertices;
+  }
+}
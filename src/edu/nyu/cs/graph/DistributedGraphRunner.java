@@ -0,0 +1,156 @@
+package edu.nyu.cs.graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * Runs traversals over a PartitionedGraph in this process. Every shard gets
+ * a ShardWorker stepped by its own thread, and the workers exchange messages
+ * through the ShardTransport, which must have been created for the same
+ * number of shards. A multi-node deployment runs the same ShardWorker on
+ * each node instead, with a network transport.
+ *
+ * @param <T> Type of vertex stored in the graph
+ */
+public class DistributedGraphRunner<T> {
+  private final PartitionedGraph<T> partitionedGraph;
+  private final ShardTransport<T> transport;
+  private int lastSuperstepCount;
+
+  public DistributedGraphRunner(PartitionedGraph<T> partitionedGraph,
+      ShardTransport<T> transport) {
+    if (partitionedGraph == null) {
+      throw new NullPointerException("Partitioned graph is null");
+    } if (transport == null) {
+      throw new NullPointerException("Transport is null");
+    }
+    this.partitionedGraph = partitionedGraph;
+    this.transport = transport;
+  }
+
+  /***
+   * Runs a breadth-first search from the provided vertex and returns the
+   * number of edges on the shortest path to every vertex reachable from it.
+   * Unreachable vertices are not in the returned map. An exception will be
+   * thrown if the vertex provided is null or isn't in the graph.
+   * @param startingVertex First vertex in the traversal
+   * @return Map from every reachable vertex to its distance from the start
+   */
+  public Map<T, Integer> bfs(T startingVertex) {
+    if (startingVertex == null) {
+      throw new NullPointerException("Starting vertex is null");
+    } if (!partitionedGraph.containsVertex(startingVertex)) {
+      throw new IllegalArgumentException("Vertex is not in the graph");
+    }
+    List<ShardWorker<T>> workers = createWorkers();
+    for (ShardWorker<T> worker : workers) {
+      worker.startBfs(startingVertex);
+    }
+
+    Map<T, Integer> distances = new HashMap<T, Integer>();
+    for (Map.Entry<T, Long> entry : run(workers).entrySet()) {
+      distances.put(entry.getKey(), entry.getValue().intValue());
+    }
+    return distances;
+  }
+
+  /***
+   * Labels the connected components of the graph. Two vertices get the same
+   * label if and only if there is a path between them. The labels themselves
+   * carry no meaning beyond that.
+   * @return Map from every vertex to the label of its component
+   */
+  public Map<T, Long> connectedComponents() {
+    List<ShardWorker<T>> workers = createWorkers();
+    for (ShardWorker<T> worker : workers) {
+      worker.startConnectedComponents();
+    }
+    return run(workers);
+  }
+
+  /***
+   * Returns the number of supersteps the last traversal took.
+   * @return Number of supersteps, 0 if nothing has been run
+   */
+  public int getLastSuperstepCount() {
+    return lastSuperstepCount;
+  }
+
+  private List<ShardWorker<T>> createWorkers() {
+    transport.reset();
+    List<ShardWorker<T>> workers = new ArrayList<ShardWorker<T>>();
+    for (GraphShard<T> shard : partitionedGraph.getShards()) {
+      workers.add(new ShardWorker<T>(shard, transport));
+    }
+    return workers;
+  }
+
+  /***
+   * Runs every worker on its own thread until the traversal is done. If a
+   * worker fails, the others are interrupted, since they would otherwise
+   * wait at the barrier forever, and the failure is rethrown once they have
+   * all stopped, so that none of them is still using the transport when the
+   * next traversal resets it.
+   */
+  private Map<T, Long> run(List<ShardWorker<T>> workers) {
+    ExecutorService executor = Executors.newFixedThreadPool(workers.size());
+    CompletionService<Void> completions =
+        new ExecutorCompletionService<Void>(executor);
+    try {
+      for (final ShardWorker<T> worker : workers) {
+        completions.submit(new Runnable() {
+          @Override
+          public void run() {
+            worker.run();
+          }
+        }, null);
+      }
+      for (int finished = 0; finished < workers.size(); finished++) {
+        completions.take().get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while running shards", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException("Shard worker failed", cause);
+    } finally {
+      executor.shutdownNow();
+      awaitTermination(executor);
+    }
+    lastSuperstepCount = workers.get(0).getSuperstepCount();
+
+    Map<T, Long> values = new HashMap<T, Long>();
+    for (ShardWorker<T> worker : workers) {
+      values.putAll(worker.getValues());
+    }
+    return values;
+  }
+
+  private static void awaitTermination(ExecutorService executor) {
+    boolean interrupted = false;
+    while (!executor.isTerminated()) {
+      try {
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,575 @@
+package edu.nyu.cs.graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.zip.CRC32;
+
+/***
+ * UndirectedGraph that survives crashes by writing every mutation to an
+ * append-only write-ahead log in a directory. Mutations are collected into
+ * a batch in memory and written and fsynced together (group commit) once
+ * the batch is full or commit() is called, so the cost of a sync is shared
+ * by the whole batch. Mutations that haven't been committed are lost in a
+ * crash. Every so often, or when checkpoint() is called, the whole graph is
+ * written to a new checkpoint file as the same checksummed records the log
+ * uses, one for every vertex and edge, and the log starts over, which keeps
+ * recovery time bounded. Opening a directory
+ * recovers the graph by loading the latest checkpoint and replaying the log
+ * written after it. A record at the end of the log that was only partly
+ * written when the process died is detected by its length or checksum and
+ * discarded. A bad record anywhere else can't be explained by a crash, so
+ * the log is reported as corrupt rather than cut short.
+ *
+ * The directory holds checkpoint-N and wal-N files, where wal-N holds the
+ * mutations made after checkpoint-N was taken. A checkpoint is written to a
+ * temporary file and renamed into place, so a crash while checkpointing
+ * leaves the previous checkpoint and its log intact. If a commit fails, the
+ * log is cut back to where the commit started and the batch is kept, so
+ * the commit can be retried. If even that fails, the graph refuses further
+ * changes. Like UndirectedGraph,
+ * this class is not thread-safe. Only one DurableGraph may use a directory
+ * at a time.
+ *
+ * @param <T> Type of vertex to be stored
+ */
+public class DurableGraph<T> extends UndirectedGraph<T> implements Closeable {
+  private static final int DEFAULT_GROUP_COMMIT_SIZE = 256;
+  private static final int DEFAULT_CHECKPOINT_INTERVAL = 1 << 20;
+  private static final String CHECKPOINT_PREFIX = "checkpoint-";
+  private static final String LOG_PREFIX = "wal-";
+  private static final String TEMP_SUFFIX = ".tmp";
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final byte ADD_VERTEX = 1;
+  private static final byte ADD_EDGE = 2;
+  private static final byte REMOVE_EDGE = 3;
+  private static final byte REMOVE_VERTEX = 4;
+
+  /***
+   * Opens files and syncs directories for a DurableGraph. Tests supply their
+   * own to see or fail the calls made to the file system.
+   */
+  interface Storage {
+    FileChannel open(Path file, OpenOption... options) throws IOException;
+
+    /***
+     * Makes the creation, renaming and deletion of files in a directory
+     * durable, where the platform supports it.
+     */
+    void syncDirectory(Path directory);
+  }
+
+  static final Storage FILE_STORAGE = new Storage() {
+    @Override
+    public FileChannel open(Path file, OpenOption... options)
+        throws IOException {
+      return FileChannel.open(file, options);
+    }
+
+    @Override
+    public void syncDirectory(Path directory) {
+      try {
+        FileChannel directoryChannel =
+            FileChannel.open(directory, StandardOpenOption.READ);
+        try {
+          directoryChannel.force(true);
+        } finally {
+          directoryChannel.close();
+        }
+      } catch (IOException e) {
+        // Directories can't be opened or synced on this platform
+      }
+    }
+  };
+
+  private final Path directory;
+  private final VertexCodec<T> codec;
+  private final Storage storage;
+  private final int groupCommitSize;
+  private final int checkpointInterval;
+  private final ByteArrayOutputStream batchBytes;
+  private final DataOutputStream batch;
+  private final ByteArrayOutputStream recordBytes;
+  private final DataOutputStream record;
+  private final CRC32 crc;
+  private FileChannel log;
+  private long generation;
+  private int batchedRecords;
+  private long recordsSinceCheckpoint;
+  private boolean replaying;
+  private boolean failed;
+
+  /***
+   * Opens or creates a durable graph in a directory with the default group
+   * commit size of 256 mutations and a checkpoint every 2^20 mutations.
+   * @param directory Directory holding the checkpoints and logs
+   * @param codec Converts vertices to and from text
+   * @throws IOException if the directory can't be read or written
+   */
+  public DurableGraph(Path directory, VertexCodec<T> codec)
+      throws IOException {
+    this(directory, codec, DEFAULT_GROUP_COMMIT_SIZE,
+        DEFAULT_CHECKPOINT_INTERVAL);
+  }
+
+  /***
+   * Opens or creates a durable graph in a directory, recovering whatever
+   * was committed to it before.
+   * @param directory Directory holding the checkpoints and logs
+   * @param codec Converts vertices to and from text
+   * @param groupCommitSize Number of mutations written and synced together.
+   *     1 syncs every mutation.
+   * @param checkpointInterval Number of mutations logged between automatic
+   *     checkpoints
+   * @throws IOException if the directory can't be read or written
+   */
+  public DurableGraph(Path directory, VertexCodec<T> codec,
+      int groupCommitSize, int checkpointInterval) throws IOException {
+    this(directory, codec, groupCommitSize, checkpointInterval, FILE_STORAGE);
+  }
+
+  DurableGraph(Path directory, VertexCodec<T> codec, int groupCommitSize,
+      int checkpointInterval, Storage storage) throws IOException {
+    if (directory == null) {
+      throw new NullPointerException("Directory is null");
+    } if (codec == null) {
+      throw new NullPointerException("Codec is null");
+    } if (groupCommitSize < 1) {
+      throw new IllegalArgumentException("Group commit size must be positive");
+    } if (checkpointInterval < 1) {
+      throw new IllegalArgumentException(
+          "Checkpoint interval must be positive");
+    }
+    this.directory = directory;
+    this.codec = codec;
+    this.groupCommitSize = groupCommitSize;
+    this.checkpointInterval = checkpointInterval;
+    this.storage = storage;
+    batchBytes = new ByteArrayOutputStream();
+    batch = new DataOutputStream(batchBytes);
+    recordBytes = new ByteArrayOutputStream();
+    record = new DataOutputStream(recordBytes);
+    crc = new CRC32();
+    Files.createDirectories(directory);
+    recover();
+  }
+
+  @Override
+  public boolean addVertex(T vertex) {
+    checkWritable();
+    boolean added = super.addVertex(vertex);
+    if (added) {
+      logMutation(ADD_VERTEX, vertex, null, null);
+    }
+    return added;
+  }
+
+  @Override
+  public String addEdge(T vertex1, T vertex2, String message) {
+    checkWritable();
+    String oldEdgeValue = super.addEdge(vertex1, vertex2, message);
+    logMutation(ADD_EDGE, vertex1, vertex2, message);
+    return oldEdgeValue;
+  }
+
+  @Override
+  public String removeEdge(T vertex1, T vertex2) {
+    checkWritable();
+    String oldEdgeValue = super.removeEdge(vertex1, vertex2);
+    logMutation(REMOVE_EDGE, vertex1, vertex2, null);
+    return oldEdgeValue;
+  }
+
+  @Override
+  public void removeVertex(T vertex) {
+    checkWritable();
+    super.removeVertex(vertex);
+    logMutation(REMOVE_VERTEX, vertex, null, null);
+  }
+
+  /***
+   * Writes and syncs every mutation made since the last commit. Once this
+   * returns, those mutations survive a crash. If it throws, none of the
+   * batch is left in the log and the batch is kept for the next commit.
+   * @throws IOException if the log can't be written
+   */
+  public void commit() throws IOException {
+    checkOpen();
+    if (batchedRecords == 0) {
+      return;
+    }
+    long start = log.position();
+    try {
+      ByteBuffer bytes = ByteBuffer.wrap(batchBytes.toByteArray());
+      while (bytes.hasRemaining()) {
+        log.write(bytes);
+      }
+      log.force(false);
+    } catch (IOException e) {
+      rollBack(start, e);
+      throw e;
+    } catch (RuntimeException e) {
+      rollBack(start, e);
+      throw e;
+    }
+    batchBytes.reset();
+    batchedRecords = 0;
+  }
+
+  /***
+   * Commits any pending mutations, writes the whole graph to a new
+   * checkpoint and starts a new, empty log. Older checkpoints and logs are
+   * deleted.
+   * @throws IOException if the checkpoint can't be written
+   */
+  public void checkpoint() throws IOException {
+    commit();
+    long nextGeneration = generation + 1;
+    Path temp = directory.resolve(CHECKPOINT_PREFIX + nextGeneration
+        + TEMP_SUFFIX);
+    FileChannel checkpoint = storage.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    try {
+      writeCheckpoint(checkpoint);
+      checkpoint.force(true);
+    } finally {
+      checkpoint.close();
+    }
+    Files.move(temp, checkpointPath(nextGeneration),
+        StandardCopyOption.ATOMIC_MOVE);
+
+    log.close();
+    long oldGeneration = generation;
+    generation = nextGeneration;
+    log = openLog(generation);
+    // Makes both the rename and the new log durable before anything is
+    // committed to the log or the old generation is deleted
+    storage.syncDirectory(directory);
+    recordsSinceCheckpoint = 0;
+    Files.deleteIfExists(logPath(oldGeneration));
+    Files.deleteIfExists(checkpointPath(oldGeneration));
+  }
+
+  /***
+   * Commits any pending mutations and closes the log. The graph can still
+   * be read afterwards, but not changed.
+   * @throws IOException if the log can't be written
+   */
+  @Override
+  public void close() throws IOException {
+    if (log == null) {
+      return;
+    }
+    try {
+      if (!failed) {
+        commit();
+      }
+    } finally {
+      log.close();
+      log = null;
+    }
+  }
+
+  private void checkOpen() {
+    if (log == null) {
+      throw new IllegalStateException("Graph has been closed");
+    } if (failed) {
+      throw new IllegalStateException(
+          "Graph can't be changed after the log failed");
+    }
+  }
+
+  /***
+   * Cuts the log back to where a failed commit started, so the records that
+   * did reach the file aren't written a second time by the next commit. If
+   * the log can't be cut, its contents are unknown, and the graph is marked
+   * failed rather than risk a log that can't be replayed.
+   */
+  private void rollBack(long start, Exception cause) {
+    try {
+      log.truncate(start);
+      log.position(start);
+    } catch (IOException e) {
+      failed = true;
+      cause.addSuppressed(e);
+    } catch (RuntimeException e) {
+      failed = true;
+      cause.addSuppressed(e);
+    }
+  }
+
+  /***
+   * Checks that a mutation can be logged before it is applied, so a closed
+   * graph is never changed. Replayed mutations are not logged.
+   */
+  private void checkWritable() {
+    if (!replaying) {
+      checkOpen();
+    }
+  }
+
+  /***
+   * Adds a mutation to the current batch, committing the batch when it is
+   * full and checkpointing when the log has grown long enough. Called after
+   * the mutation has been applied, so mutations that throw aren't logged.
+   */
+  private void logMutation(byte type, T vertex1, T vertex2, String label) {
+    if (replaying) {
+      return;
+    }
+    try {
+      writeRecord(batch, type, vertex1, vertex2, label);
+      batchedRecords++;
+      recordsSinceCheckpoint++;
+      if (batchedRecords >= groupCommitSize) {
+        commit();
+      } if (recordsSinceCheckpoint >= checkpointInterval) {
+        checkpoint();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Couldn't write to the log", e);
+    }
+  }
+
+  /***
+   * Writes a record, prefixed by its length and checksum, to the stream.
+   */
+  private void writeRecord(DataOutputStream out, byte type, T vertex1,
+      T vertex2, String label) throws IOException {
+    recordBytes.reset();
+    record.writeByte(type);
+    writeString(record, codec.encode(vertex1));
+    if (vertex2 != null) {
+      writeString(record, codec.encode(vertex2));
+    } if (label != null) {
+      writeString(record, label);
+    }
+    crc.reset();
+    crc.update(recordBytes.toByteArray(), 0, recordBytes.size());
+    out.writeInt(recordBytes.size());
+    out.writeInt((int) crc.getValue());
+    recordBytes.writeTo(out);
+  }
+
+  /***
+   * Writes the graph as a record adding every vertex followed by a record
+   * adding every edge. Using the log's own records, rather than a text
+   * format, means any vertex the codec can encode is written losslessly.
+   */
+  private void writeCheckpoint(FileChannel checkpoint) throws IOException {
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+        Channels.newOutputStream(checkpoint), 1 << 16));
+    for (T vertex : verticesView()) {
+      writeRecord(out, ADD_VERTEX, vertex, null, null);
+    }
+    Iterator<GraphRecord<T>> edges = edgeIterator();
+    while (edges.hasNext()) {
+      GraphRecord<T> edge = edges.next();
+      writeRecord(out, ADD_EDGE, edge.vertex1, edge.vertex2, edge.label);
+    }
+    // Flush without closing, which would close the channel before its sync
+    out.flush();
+  }
+
+  /***
+   * Loads the latest checkpoint, replays its log, and opens the log for
+   * appending. Leftovers of older generations and of interrupted
+   * checkpoints are deleted.
+   */
+  private void recover() throws IOException {
+    generation = 0;
+    DirectoryStream<Path> files = Files.newDirectoryStream(directory);
+    try {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        if (name.startsWith(CHECKPOINT_PREFIX) && !name.endsWith(TEMP_SUFFIX)) {
+          generation = Math.max(generation,
+              Long.parseLong(name.substring(CHECKPOINT_PREFIX.length())));
+        }
+      }
+    } finally {
+      files.close();
+    }
+
+    replaying = true;
+    try {
+      if (Files.exists(checkpointPath(generation))) {
+        FileChannel checkpoint = storage.open(checkpointPath(generation),
+            StandardOpenOption.READ);
+        try {
+          // Checkpoints are synced before being renamed into place, so
+          // unlike the log they can't end in a torn record
+          if (replayRecords(checkpoint, checkpointPath(generation))
+              != checkpoint.size()) {
+            throw new IOException("Checkpoint " + generation + " is corrupt");
+          }
+        } finally {
+          checkpoint.close();
+        }
+        recordsSinceCheckpoint = 0;
+      }
+      log = openLog(generation);
+      boolean replayed = false;
+      try {
+        // The log may have just been created, and a commit to it is only
+        // durable once its directory entry is
+        storage.syncDirectory(directory);
+        replayLog();
+        replayed = true;
+      } finally {
+        if (!replayed) {
+          log.close();
+          log = null;
+        }
+      }
+    } finally {
+      replaying = false;
+    }
+
+    files = Files.newDirectoryStream(directory);
+    try {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        boolean current = name.equals(CHECKPOINT_PREFIX + generation)
+            || name.equals(LOG_PREFIX + generation);
+        if (!current && (name.startsWith(CHECKPOINT_PREFIX)
+            || name.startsWith(LOG_PREFIX))) {
+          Files.delete(file);
+        }
+      }
+    } finally {
+      files.close();
+    }
+  }
+
+  /***
+   * Applies every intact record of the open log to the graph, then cuts off
+   * a torn record at its end so new records follow the last intact one.
+   */
+  private void replayLog() throws IOException {
+    long logSize = log.size();
+    long validLength = replayRecords(log, logPath(generation));
+    if (validLength < logSize) {
+      log.truncate(validLength);
+      log.force(false);
+    }
+    log.position(validLength);
+  }
+
+  /***
+   * Applies records from the start of a file to the graph until the end of
+   * the file or a torn record. A record is torn if its header is cut off, or
+   * if it has a bad length or fails its checksum and reaches the end of the
+   * file, as the last record being written when the process died would.
+   * @return Length of the intact records at the start of the file
+   * @throws IOException if a bad record is followed by more data
+   */
+  private long replayRecords(FileChannel channel, Path file)
+      throws IOException {
+    long size = channel.size();
+    long validLength = 0;
+    DataInputStream in = new DataInputStream(new BufferedInputStream(
+        Channels.newInputStream(channel.position(0)), 1 << 16));
+    byte[] payload = new byte[0];
+    while (true) {
+      int length;
+      int checksum;
+      try {
+        length = in.readInt();
+        checksum = in.readInt();
+      } catch (EOFException e) {
+        break;
+      }
+      long end = validLength + 8 + Math.max(length, 0);
+      if (length >= 1 && end <= size) {
+        if (payload.length < length) {
+          payload = new byte[length];
+        }
+        in.readFully(payload, 0, length);
+        crc.reset();
+        crc.update(payload, 0, length);
+        if ((int) crc.getValue() == checksum) {
+          applyRecord(new DataInputStream(
+              new ByteArrayInputStream(payload, 0, length)));
+          validLength = end;
+          recordsSinceCheckpoint++;
+          continue;
+        }
+      } if (end >= size) {
+        break;
+      }
+      throw new IOException(file + " has a corrupt record at offset "
+          + validLength);
+    }
+    // Don't close the stream, since that would close the channel
+    return validLength;
+  }
+
+  private void applyRecord(DataInputStream in) throws IOException {
+    byte type = in.readByte();
+    T vertex1 = codec.decode(readString(in));
+    if (type == ADD_VERTEX) {
+      addVertex(vertex1);
+    } else if (type == ADD_EDGE) {
+      T vertex2 = codec.decode(readString(in));
+      addEdge(vertex1, vertex2, readString(in));
+    } else if (type == REMOVE_EDGE) {
+      removeEdge(vertex1, codec.decode(readString(in)));
+    } else if (type == REMOVE_VERTEX) {
+      removeVertex(vertex1);
+    } else {
+      throw new IOException("Unknown log record type " + type);
+    }
+  }
+
+  /***
+   * Opens a log for appending, creating it if it doesn't exist.
+   */
+  private FileChannel openLog(long logGeneration) throws IOException {
+    FileChannel channel = storage.open(logPath(logGeneration),
+        StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    channel.position(channel.size());
+    return channel;
+  }
+
+  private Path checkpointPath(long checkpointGeneration) {
+    return directory.resolve(CHECKPOINT_PREFIX + checkpointGeneration);
+  }
+
+  private Path logPath(long logGeneration) {
+    return directory.resolve(LOG_PREFIX + logGeneration);
+  }
+
+  private static void writeString(DataOutputStream out, String value)
+      throws IOException {
+    byte[] bytes = value.getBytes(UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, UTF_8);
+  }
+}
@@ -0,0 +1,80 @@
+package edu.nyu.cs.graph;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/***
+ * Iterator over the edges among some vertices of a graph, returning each
+ * edge once as a GraphRecord holding its two ends and its value. The
+ * adjacency lists of the vertices are read in order, and an edge is returned
+ * from whichever of its ends comes first, so a self-edge has the same vertex
+ * at both ends. Edges to vertices outside the given members are skipped.
+ *
+ * @param <T> Type of vertex stored in the graph
+ */
+class EdgeIterator<T> implements Iterator<GraphRecord<T>> {
+  private final UndirectedGraph<T> graph;
+  private final Iterator<T> vertices;
+  private final Set<T> members;
+  private final Set<T> visitedVertices;
+  private T vertex;
+  private Iterator<T> neighbors;
+  private GraphRecord<T> nextEdge;
+
+  /***
+   * @param graph Graph whose edges are returned
+   * @param vertices Vertices whose edges are returned, all in the graph
+   * @param members Vertices the other end of an edge must be in, or null to
+   *     return every edge of the given vertices
+   */
+  EdgeIterator(UndirectedGraph<T> graph, Collection<T> vertices,
+      Set<T> members) {
+    this.graph = graph;
+    this.vertices = vertices.iterator();
+    this.members = members;
+    visitedVertices = new HashSet<T>();
+    advance();
+  }
+
+  @Override
+  public boolean hasNext() {
+    return nextEdge != null;
+  }
+
+  @Override
+  public GraphRecord<T> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException("No more elements in the Iterator");
+    }
+    GraphRecord<T> edge = nextEdge;
+    advance();
+    return edge;
+  }
+
+  private void advance() {
+    nextEdge = null;
+    while (true) {
+      while (neighbors != null && neighbors.hasNext()) {
+        T neighbor = neighbors.next();
+        // Every other edge was already returned from its other end
+        if (!visitedVertices.contains(neighbor)
+            && (members == null || members.contains(neighbor))) {
+          nextEdge = new GraphRecord<T>(vertex, neighbor,
+              graph.edgeValueOrNull(vertex, neighbor));
+          return;
+        }
+      }
+      if (vertex != null) {
+        visitedVertices.add(vertex);
+      } if (!vertices.hasNext()) {
+        neighbors = null;
+        return;
+      }
+      vertex = vertices.next();
+      neighbors = graph.neighborsView(vertex).iterator();
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package edu.nyu.cs.graph;
+
+import java.util.Arrays;
+import java.util.List;
+
+/***
+ * Greedy window-based ordering in the style of Gorder. Vertices are placed
+ * one at a time, and each step picks the unplaced vertex with the most
+ * connections to the last few placed vertices (the window), counting both
+ * shared edges and shared neighbors. Vertices that are used together during
+ * a traversal therefore end up numbered close together. Shared neighbors are
+ * not counted through vertices of very high degree, since nearly everything
+ * is a sibling through a hub and counting them would dominate the running
+ * time.
+ *
+ * @param <T> Type of vertex stored in the graph
+ */
+public class GorderOrdering<T> implements VertexOrdering<T> {
+  private static final int DEFAULT_WINDOW = 5;
+
+  private final int window;
+
+  public GorderOrdering() {
+    this(DEFAULT_WINDOW);
+  }
+
+  /***
+   * @param window Number of recently placed vertices a candidate is scored
+   *     against
+   */
+  public GorderOrdering(int window) {
+    if (window < 1) {
+      throw new IllegalArgumentException("Window must be positive");
+    }
+    this.window = window;
+  }
+
+  @Override
+  public List<T> order(UndirectedGraph<T> graph) {
+    IndexedAdjacency<T> adjacency = new IndexedAdjacency<T>(graph);
+    Placement placement = new Placement(adjacency);
+    int size = adjacency.size();
+    int[] order = new int[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = placement.next();
+      placement.place(order[i]);
+      if (i >= window) {
+        placement.updateScores(order[i - window], -1);
+      }
+    }
+    return adjacency.toVertices(order);
+  }
+
+  /***
+   * Scores of the unplaced vertices, kept in an indexed max-heap ordered by
+   * score and then by id. The heap is stored in int arrays, with the
+   * position of every vertex in the heap, so a score change moves the
+   * vertex's one entry up or down instead of adding another. Vertices that
+   * have been scored stay in the heap until they are placed, even if their
+   * score falls back to zero, since they are still closer to the placed
+   * vertices than one never scored.
+   */
+  private static class Placement {
+    private static final int NONE = -1;
+
+    private final int[][] neighbors;
+    private final int hubDegree;
+    private final int[] scores;
+    private final boolean[] placed;
+    private final int[] heap;
+    private final int[] heapPositions;
+    private int heapSize;
+    private int start;
+    private int nextUnscored;
+
+    Placement(IndexedAdjacency<?> adjacency) {
+      neighbors = adjacency.neighbors;
+      int size = neighbors.length;
+      hubDegree = Math.max(16, (int) Math.sqrt(size));
+      scores = new int[size];
+      placed = new boolean[size];
+      heap = new int[size];
+      heapPositions = new int[size];
+      Arrays.fill(heapPositions, NONE);
+      // Start from the vertex of highest degree
+      for (int id = 1; id < size; id++) {
+        if (neighbors[id].length > neighbors[start].length) {
+          start = id;
+        }
+      }
+    }
+
+    /***
+     * Returns the unplaced vertex with the highest score. When no unplaced
+     * vertex has been scored, which happens when a component is finished,
+     * returns the first unplaced vertex.
+     */
+    int next() {
+      if (heapSize > 0) {
+        return heap[0];
+      } if (!placed[start]) {
+        return start;
+      }
+      while (placed[nextUnscored]) {
+        nextUnscored++;
+      }
+      return nextUnscored;
+    }
+
+    void place(int id) {
+      if (heapPositions[id] != NONE) {
+        removeFromHeap(id);
+      }
+      placed[id] = true;
+      updateScores(id, 1);
+    }
+
+    /***
+     * Adds delta to the score of every unplaced vertex that is a neighbor of
+     * the vertex, or shares a neighbor with it.
+     */
+    void updateScores(int id, int delta) {
+      for (int neighbor : neighbors[id]) {
+        changeScore(neighbor, delta);
+        if (neighbors[neighbor].length <= hubDegree) {
+          for (int sibling : neighbors[neighbor]) {
+            if (sibling != id) {
+              changeScore(sibling, delta);
+            }
+          }
+        }
+      }
+    }
+
+    private void changeScore(int id, int delta) {
+      if (placed[id]) {
+        return;
+      }
+      scores[id] += delta;
+      if (heapPositions[id] == NONE) {
+        heap[heapSize] = id;
+        heapPositions[id] = heapSize;
+        heapSize++;
+        siftUp(heapSize - 1);
+      } else if (delta > 0) {
+        siftUp(heapPositions[id]);
+      } else {
+        siftDown(heapPositions[id]);
+      }
+    }
+
+    private void removeFromHeap(int id) {
+      int position = heapPositions[id];
+      heapSize--;
+      heapPositions[id] = NONE;
+      if (position < heapSize) {
+        moveTo(heap[heapSize], position);
+        siftUp(position);
+        siftDown(heapPositions[heap[position]]);
+      }
+    }
+
+    private void siftUp(int position) {
+      int id = heap[position];
+      while (position > 0) {
+        int parent = (position - 1) >>> 1;
+        if (!before(id, heap[parent])) {
+          break;
+        }
+        moveTo(heap[parent], position);
+        position = parent;
+      }
+      moveTo(id, position);
+    }
+
+    private void siftDown(int position) {
+      int id = heap[position];
+      while (true) {
+        int child = 2 * position + 1;
+        if (child >= heapSize) {
+          break;
+        } if (child + 1 < heapSize && before(heap[child + 1], heap[child])) {
+          child++;
+        } if (!before(heap[child], id)) {
+          break;
+        }
+        moveTo(heap[child], position);
+        position = child;
+      }
+      moveTo(id, position);
+    }
+
+    private void moveTo(int id, int position) {
+      heap[position] = id;
+      heapPositions[id] = position;
+    }
+
+    /***
+     * Returns whether the first vertex belongs above the second in the heap.
+     */
+    private boolean before(int id1, int id2) {
+      return scores[id1] > scores[id2]
+          || (scores[id1] == scores[id2] && id1 > id2);
+    }
+  }
+}
@@ -0,0 +1,323 @@
+package edu.nyu.cs.graph;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/***
+ * Text formats understood by GraphReader and GraphWriter. Every format is
+ * line oriented so that a file can be split into chunks at line breaks and
+ * the chunks parsed independently. Vertices that appear in an edge are added
+ * to the graph even if they aren't declared on a line of their own.
+ */
+public enum GraphFormat {
+
+  /***
+   * One edge per line as "vertex1 TAB vertex2 TAB label", or a lone
+   * "vertex" for a vertex without edges. Tabs, line breaks and backslashes
+   * inside a field are escaped with a backslash, and an empty field is
+   * written as "\0" so that it doesn't read back as a blank line. Blank
+   * lines and lines starting with '#' are ignored.
+   */
+  EDGE_LIST {
+    @Override
+    <T> void parseLine(String line, VertexCodec<T> codec,
+        List<GraphRecord<T>> records) {
+      if (isIgnoredLine(line)) {
+        return;
+      }
+      String[] fields = line.split("\t", -1);
+      if (fields.length == 1) {
+        records.add(new GraphRecord<T>(decode(codec, fields[0]), null, null));
+      } else if (fields.length == 3) {
+        records.add(new GraphRecord<T>(decode(codec, fields[0]),
+            decode(codec, fields[1]), unescape(fields[2])));
+      } else {
+        throw new IllegalArgumentException("Malformed edge list line: " + line);
+      }
+    }
+
+    @Override
+    <T> void write(UndirectedGraph<T> graph, VertexCodec<T> codec,
+        Writer out) throws IOException {
+      for (T vertex : graph.getVertices()) {
+        if (graph.neighborsView(vertex).isEmpty()) {
+          out.write(escape(codec.encode(vertex)));
+          out.write('\n');
+        }
+      }
+      Iterator<GraphRecord<T>> edges = graph.edgeIterator();
+      while (edges.hasNext()) {
+        GraphRecord<T> edge = edges.next();
+        out.write(escape(codec.encode(edge.vertex1)));
+        out.write('\t');
+        out.write(escape(codec.encode(edge.vertex2)));
+        out.write('\t');
+        out.write(escape(edge.label));
+        out.write('\n');
+      }
+    }
+  },
+
+  /***
+   * One vertex per line followed by all of its neighbors, separated by tabs
+   * and escaped as in EDGE_LIST. Edge labels are not stored, so edges read
+   * from this format get the reader's default label.
+   */
+  ADJACENCY_LIST {
+    @Override
+    <T> void parseLine(String line, VertexCodec<T> codec,
+        List<GraphRecord<T>> records) {
+      if (isIgnoredLine(line)) {
+        return;
+      }
+      String[] fields = line.split("\t", -1);
+      T vertex = decode(codec, fields[0]);
+      records.add(new GraphRecord<T>(vertex, null, null));
+      for (int i = 1; i < fields.length; i++) {
+        records.add(new GraphRecord<T>(vertex, decode(codec, fields[i]), null));
+      }
+    }
+
+    @Override
+    <T> void write(UndirectedGraph<T> graph, VertexCodec<T> codec,
+        Writer out) throws IOException {
+      for (T vertex : graph.getVertices()) {
+        out.write(escape(codec.encode(vertex)));
+        for (T neighbor : graph.neighborsView(vertex)) {
+          out.write('\t');
+          out.write(escape(codec.encode(neighbor)));
+        }
+        out.write('\n');
+      }
+    }
+  },
+
+  /***
+   * A subset of GraphML with one element per line: a node element for every
+   * vertex followed by an edge element for every edge, with the edge label
+   * in a data element. The reader only understands node and edge elements
+   * laid out this way, as written by GraphWriter, and skips every other
+   * line.
+   */
+  GRAPHML_LITE {
+    @Override
+    <T> void parseLine(String line, VertexCodec<T> codec,
+        List<GraphRecord<T>> records) {
+      Matcher node = NODE_PATTERN.matcher(line);
+      if (node.matches()) {
+        records.add(new GraphRecord<T>(
+            decodeXml(codec, node.group(1)), null, null));
+        return;
+      }
+      Matcher edge = EDGE_PATTERN.matcher(line);
+      if (edge.matches()) {
+        String label = edge.group(3) == null ? "" : unescapeXml(edge.group(3));
+        records.add(new GraphRecord<T>(decodeXml(codec, edge.group(1)),
+            decodeXml(codec, edge.group(2)), label));
+      } else if (line.trim().startsWith("<node")
+          || line.trim().startsWith("<edge")) {
+        throw new IllegalArgumentException("Malformed GraphML line: " + line);
+      }
+    }
+
+    @Override
+    <T> void write(UndirectedGraph<T> graph, VertexCodec<T> codec,
+        Writer out) throws IOException {
+      out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+      out.write("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n");
+      out.write("  <key id=\"label\" for=\"edge\" attr.name=\"label\""
+          + " attr.type=\"string\"/>\n");
+      out.write("  <graph edgedefault=\"undirected\">\n");
+      for (T vertex : graph.getVertices()) {
+        out.write("    <node id=\"");
+        out.write(escapeXml(codec.encode(vertex)));
+        out.write("\"/>\n");
+      }
+      Iterator<GraphRecord<T>> edges = graph.edgeIterator();
+      while (edges.hasNext()) {
+        GraphRecord<T> edge = edges.next();
+        out.write("    <edge source=\"");
+        out.write(escapeXml(codec.encode(edge.vertex1)));
+        out.write("\" target=\"");
+        out.write(escapeXml(codec.encode(edge.vertex2)));
+        out.write("\"><data key=\"label\">");
+        out.write(escapeXml(edge.label));
+        out.write("</data></edge>\n");
+      }
+      out.write("  </graph>\n");
+      out.write("</graphml>\n");
+    }
+  };
+
+  private static final Pattern NODE_PATTERN =
+      Pattern.compile("\\s*<node\\s+id=\"([^\"]*)\"\\s*/>\\s*");
+  private static final Pattern EDGE_PATTERN = Pattern.compile(
+      "\\s*<edge\\s+source=\"([^\"]*)\"\\s+target=\"([^\"]*)\"\\s*"
+      + "(?:/>|>(?:<data\\s+key=\"label\">([^<]*)</data>)?</edge>)\\s*");
+
+  /***
+   * Parses one line of input, without its line break, and adds the vertices
+   * and edges found on it to the records. Must be safe to call from several
+   * threads at once.
+   */
+  abstract <T> void parseLine(String line, VertexCodec<T> codec,
+      List<GraphRecord<T>> records);
+
+  /***
+   * Writes the whole graph to the writer one line at a time.
+   */
+  abstract <T> void write(UndirectedGraph<T> graph, VertexCodec<T> codec,
+      Writer out) throws IOException;
+
+  private static boolean isIgnoredLine(String line) {
+    return line.isEmpty() || line.charAt(0) == '#';
+  }
+
+  private static <T> T decode(VertexCodec<T> codec, String field) {
+    return checkDecoded(codec.decode(unescape(field)), field);
+  }
+
+  /***
+   * Decodes an attribute of a GraphML element. Only XML escaping applies
+   * there, so backslashes are part of the vertex name.
+   */
+  private static <T> T decodeXml(VertexCodec<T> codec, String attribute) {
+    return checkDecoded(codec.decode(unescapeXml(attribute)), attribute);
+  }
+
+  private static <T> T checkDecoded(T vertex, String field) {
+    if (vertex == null) {
+      throw new IllegalArgumentException("Codec decoded " + field + " to null");
+    }
+    return vertex;
+  }
+
+  static String escape(String field) {
+    if (field.isEmpty()) {
+      return "\\0";
+    }
+    StringBuilder escaped = null;
+    for (int i = 0; i < field.length(); i++) {
+      char c = field.charAt(i);
+      String replacement = null;
+      if (c == '\\') {
+        replacement = "\\\\";
+      } else if (c == '\t') {
+        replacement = "\\t";
+      } else if (c == '\n') {
+        replacement = "\\n";
+      } else if (c == '\r') {
+        replacement = "\\r";
+      } else if (c == '#' && i == 0) {
+        // Keeps the field from being read back as a comment line
+        replacement = "\\#";
+      }
+      // Most fields need no escaping, so only copy once we find a character
+      // that does
+      if (replacement != null && escaped == null) {
+        escaped = new StringBuilder(field.length() + 8);
+        escaped.append(field, 0, i);
+      }
+      if (escaped != null) {
+        if (replacement != null) {
+          escaped.append(replacement);
+        } else {
+          escaped.append(c);
+        }
+      }
+    }
+    return escaped == null ? field : escaped.toString();
+  }
+
+  static String unescape(String field) {
+    if (field.indexOf('\\') < 0) {
+      return field;
+    }
+    StringBuilder unescaped = new StringBuilder(field.length());
+    for (int i = 0; i < field.length(); i++) {
+      char c = field.charAt(i);
+      if (c != '\\') {
+        unescaped.append(c);
+        continue;
+      } if (++i == field.length()) {
+        throw new IllegalArgumentException("Dangling escape in " + field);
+      }
+      char escapedChar = field.charAt(i);
+      if (escapedChar == 't') {
+        unescaped.append('\t');
+      } else if (escapedChar == 'n') {
+        unescaped.append('\n');
+      } else if (escapedChar == 'r') {
+        unescaped.append('\r');
+      } else if (escapedChar != '0') {
+        // Anything else stands for itself, except "\0" which marks an empty
+        // field
+        unescaped.append(escapedChar);
+      }
+    }
+    return unescaped.toString();
+  }
+
+  static String escapeXml(String text) {
+    StringBuilder escaped = new StringBuilder(text.length() + 8);
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch (c) {
+        case '&': escaped.append("&amp;"); break;
+        case '<': escaped.append("&lt;"); break;
+        case '>': escaped.append("&gt;"); break;
+        case '"': escaped.append("&quot;"); break;
+        case '\'': escaped.append("&apos;"); break;
+        case '\n': escaped.append("&#10;"); break;
+        case '\r': escaped.append("&#13;"); break;
+        case '\t': escaped.append("&#9;"); break;
+        default: escaped.append(c);
+      }
+    }
+    return escaped.toString();
+  }
+
+  static String unescapeXml(String text) {
+    if (text.indexOf('&') < 0) {
+      return text;
+    }
+    StringBuilder unescaped = new StringBuilder(text.length());
+    int i = 0;
+    while (i < text.length()) {
+      char c = text.charAt(i);
+      if (c != '&') {
+        unescaped.append(c);
+        i++;
+        continue;
+      }
+      int end = text.indexOf(';', i);
+      if (end < 0) {
+        throw new IllegalArgumentException("Unterminated entity in " + text);
+      }
+      String entity = text.substring(i + 1, end);
+      if (entity.equals("amp")) {
+        unescaped.append('&');
+      } else if (entity.equals("lt")) {
+        unescaped.append('<');
+      } else if (entity.equals("gt")) {
+        unescaped.append('>');
+      } else if (entity.equals("quot")) {
+        unescaped.append('"');
+      } else if (entity.equals("apos")) {
+        unescaped.append('\'');
+      } else if (entity.startsWith("#x")) {
+        unescaped.appendCodePoint(Integer.parseInt(entity.substring(2), 16));
+      } else if (entity.startsWith("#")) {
+        unescaped.appendCodePoint(Integer.parseInt(entity.substring(1)));
+      } else {
+        throw new IllegalArgumentException("Unknown entity &" + entity + ";");
+      }
+      i = end + 1;
+    }
+    return unescaped.toString();
+  }
+}
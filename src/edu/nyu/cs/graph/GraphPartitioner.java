@@ -0,0 +1,21 @@
+package edu.nyu.cs.graph;
+
+import java.util.Map;
+
+/***
+ * Strategy used by PartitionedGraph to decide which shard owns each vertex
+ * of an UndirectedGraph. Implementations must assign every vertex of the
+ * graph to a shard in the range [0, shardCount).
+ *
+ * @param <T> Type of vertex to be partitioned
+ */
+public interface GraphPartitioner<T> {
+
+  /***
+   * Assigns every vertex of the graph to a shard.
+   * @param graph Graph to partition
+   * @param shardCount Number of shards to split the graph into
+   * @return Map from each vertex to the id of the shard that owns it
+   */
+  Map<T, Integer> partition(UndirectedGraph<T> graph, int shardCount);
+}
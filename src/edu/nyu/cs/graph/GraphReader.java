@@ -0,0 +1,231 @@
+package edu.nyu.cs.graph;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/***
+ * Streams a graph from UTF-8 text in one of the GraphFormats. The input is
+ * read through a channel in fixed-size chunks that are cut at line breaks,
+ * and the chunks are parsed in parallel on a pool of threads. The parsed
+ * chunks are then added to the graph one at a time in input order, since
+ * UndirectedGraph is not thread-safe. Only a bounded number of chunks are in
+ * flight at once, so memory use does not grow with the size of the input.
+ * A single line longer than the chunk size is still read whole.
+ *
+ * @param <T> Type of vertex stored in the graph
+ */
+public class GraphReader<T> {
+  private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private final GraphFormat format;
+  private final VertexCodec<T> codec;
+  private final int parallelism;
+  private final int chunkSize;
+  private String defaultEdgeLabel;
+
+  public GraphReader(GraphFormat format, VertexCodec<T> codec) {
+    this(format, codec, Runtime.getRuntime().availableProcessors(),
+        DEFAULT_CHUNK_SIZE);
+  }
+
+  /***
+   * @param format Format of the input
+   * @param codec Converts the text of each vertex to a vertex
+   * @param parallelism Number of threads parsing chunks
+   * @param chunkSize Number of bytes read from the channel at a time
+   */
+  public GraphReader(GraphFormat format, VertexCodec<T> codec,
+      int parallelism, int chunkSize) {
+    if (format == null) {
+      throw new NullPointerException("Format is null");
+    } if (codec == null) {
+      throw new NullPointerException("Codec is null");
+    } if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive");
+    } if (chunkSize < 1) {
+      throw new IllegalArgumentException("Chunk size must be positive");
+    }
+    this.format = format;
+    this.codec = codec;
+    this.parallelism = parallelism;
+    this.chunkSize = chunkSize;
+    defaultEdgeLabel = "";
+  }
+
+  /***
+   * Sets the label given to edges read from a format that doesn't store
+   * labels. Defaults to the empty String.
+   * @param label Label for unlabeled edges
+   */
+  public void setDefaultEdgeLabel(String label) {
+    if (label == null) {
+      throw new NullPointerException("Edge label is null");
+    }
+    defaultEdgeLabel = label;
+  }
+
+  /***
+   * Reads a new graph from a file.
+   * @param path File to read
+   * @return Graph holding the vertices and edges in the file
+   * @throws IOException if the file can't be read or is malformed
+   */
+  public UndirectedGraph<T> read(Path path) throws IOException {
+    UndirectedGraph<T> graph = new UndirectedGraph<T>();
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      readInto(channel, graph);
+    } finally {
+      channel.close();
+    }
+    return graph;
+  }
+
+  /***
+   * Reads vertices and edges from a channel until it ends and adds them to
+   * an existing graph. Edges already in the graph get the label from the
+   * input. The channel is not closed.
+   * @param channel Channel to read from
+   * @param graph Graph to add the vertices and edges to
+   * @throws IOException if the channel can't be read or the input is
+   *     malformed. Whatever was read before the error stays in the graph.
+   */
+  public void readInto(ReadableByteChannel channel, UndirectedGraph<T> graph)
+      throws IOException {
+    if (channel == null) {
+      throw new NullPointerException("Channel is null");
+    } if (graph == null) {
+      throw new NullPointerException("Graph is null");
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    Queue<Future<List<GraphRecord<T>>>> inFlight =
+        new ArrayDeque<Future<List<GraphRecord<T>>>>();
+    try {
+      ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+      while (channel.read(buffer) >= 0) {
+        if (buffer.hasRemaining()) {
+          continue;
+        }
+        int lineEnd = lastLineBreak(buffer);
+        if (lineEnd < 0) {
+          // The buffer holds part of a single line, so make room for the rest
+          ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+          buffer.flip();
+          larger.put(buffer);
+          buffer = larger;
+          continue;
+        }
+        inFlight.add(executor.submit(
+            new ChunkParser(copyChunk(buffer, lineEnd + 1))));
+        buffer.compact();
+        // Keep the parsers busy, but don't let parsed chunks pile up
+        if (inFlight.size() >= parallelism * 2) {
+          apply(inFlight.remove(), graph);
+        }
+      }
+      if (buffer.position() > 0) {
+        inFlight.add(executor.submit(
+            new ChunkParser(copyChunk(buffer, buffer.position()))));
+      }
+      while (!inFlight.isEmpty()) {
+        apply(inFlight.remove(), graph);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /***
+   * Returns the index of the last '\n' in the filled part of the buffer, or
+   * -1 if there isn't one. UTF-8 never uses the byte of '\n' inside a
+   * multi-byte character, so it is safe to cut the input there.
+   */
+  private static int lastLineBreak(ByteBuffer buffer) {
+    for (int i = buffer.position() - 1; i >= 0; i--) {
+      if (buffer.get(i) == '\n') {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /***
+   * Copies the first length bytes out of the buffer and leaves the buffer
+   * ready to be compacted, with the remaining bytes between its position and
+   * limit.
+   */
+  private static byte[] copyChunk(ByteBuffer buffer, int length) {
+    buffer.flip();
+    byte[] chunk = new byte[length];
+    buffer.get(chunk);
+    return chunk;
+  }
+
+  private void apply(Future<List<GraphRecord<T>>> parsedChunk,
+      UndirectedGraph<T> graph) throws IOException {
+    List<GraphRecord<T>> records;
+    try {
+      records = parsedChunk.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while reading graph");
+    } catch (ExecutionException e) {
+      throw new IOException(e.getCause().getMessage(), e.getCause());
+    }
+    for (GraphRecord<T> record : records) {
+      graph.addVertex(record.vertex1);
+      if (record.vertex2 != null) {
+        graph.addVertex(record.vertex2);
+        graph.addEdge(record.vertex1, record.vertex2,
+            record.label == null ? defaultEdgeLabel : record.label);
+      }
+    }
+  }
+
+  /***
+   * Decodes a chunk of whole lines and parses every line in it.
+   */
+  private class ChunkParser implements Callable<List<GraphRecord<T>>> {
+    private final byte[] chunk;
+
+    ChunkParser(byte[] chunk) {
+      this.chunk = chunk;
+    }
+
+    @Override
+    public List<GraphRecord<T>> call() {
+      String text = new String(chunk, UTF_8);
+      List<GraphRecord<T>> records = new ArrayList<GraphRecord<T>>();
+      int lineStart = 0;
+      while (lineStart < text.length()) {
+        int lineEnd = text.indexOf('\n', lineStart);
+        if (lineEnd < 0) {
+          lineEnd = text.length();
+        }
+        int contentEnd = lineEnd;
+        if (contentEnd > lineStart && text.charAt(contentEnd - 1) == '\r') {
+          contentEnd--;
+        }
+        format.parseLine(text.substring(lineStart, contentEnd), codec, records);
+        lineStart = lineEnd + 1;
+      }
+      return records;
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package edu.nyu.cs.graph;
+
+/***
+ * A vertex or an edge parsed from one line of a graph file, or an edge
+ * returned by an EdgeIterator. If the second vertex is null the record only
+ * declares the first vertex. A null label on a parsed edge means the format
+ * doesn't store labels, and the reader's default label should be used.
+ *
+ * @param <T> Type of vertex stored in the graph
+ */
+final class GraphRecord<T> {
+  final T vertex1;
+  final T vertex2;
+  final String label;
+
+  GraphRecord(T vertex1, T vertex2, String label) {
+    this.vertex1 = vertex1;
+    this.vertex2 = vertex2;
+    this.label = label;
+  }
+}
@@ -0,0 +1,190 @@
+package edu.nyu.cs.graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/***
+ * One shard of a PartitionedGraph. A shard stores the vertices it owns, every
+ * edge touching one of those vertices, and a ghost copy of each vertex on the
+ * other end of an edge that crosses into another shard. Ghost vertices carry
+ * no edges of their own beyond the boundary edges, and remember which shard
+ * owns them so traversals can forward work across the boundary.
+ * PartitionedGraph builds every shard of a graph in one process. A node of
+ * a multi-node deployment can instead build just its own shard with the
+ * public constructor and add methods, and run a ShardWorker on it.
+ *
+ * @param <T> Type of vertex stored in the shard
+ */
+public class GraphShard<T> {
+  private final int shardId;
+  private final int shardCount;
+  private final UndirectedGraph<T> localGraph;
+  private final List<T> ownedVertices;
+  private final Map<T, Integer> ghostOwners;
+
+  /***
+   * Creates an empty shard.
+   * @param shardId Id of this shard, from 0 to shardCount - 1
+   * @param shardCount Number of shards the graph is split into
+   */
+  public GraphShard(int shardId, int shardCount) {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("Shard count must be positive");
+    } if (shardId < 0 || shardId >= shardCount) {
+      throw new IllegalArgumentException("No shard with id " + shardId);
+    }
+    this.shardId = shardId;
+    this.shardCount = shardCount;
+    localGraph = new UndirectedGraph<T>();
+    ownedVertices = new ArrayList<T>();
+    ghostOwners = new HashMap<T, Integer>();
+  }
+
+  /***
+   * Adds a vertex owned by this shard. Throws an exception if the vertex is
+   * already in the shard.
+   * @param vertex Vertex to add
+   */
+  public void addOwnedVertex(T vertex) {
+    if (vertex == null) {
+      throw new NullPointerException("Vertex passed is null");
+    } if (localGraph.containsVertex(vertex)) {
+      throw new IllegalArgumentException("Vertex is already in the shard");
+    }
+    localGraph.addVertex(vertex);
+    ownedVertices.add(vertex);
+  }
+
+  /***
+   * Adds a ghost copy of a vertex owned by another shard. Adding the same
+   * ghost again with the same owner does nothing. Throws an exception if the
+   * vertex is owned by this shard or is already a ghost owned by another
+   * shard.
+   * @param vertex Vertex to add
+   * @param owner Id of the shard that owns the vertex
+   */
+  public void addGhostVertex(T vertex, int owner) {
+    if (vertex == null) {
+      throw new NullPointerException("Vertex passed is null");
+    } if (owner == shardId || owner < 0 || owner >= shardCount) {
+      throw new IllegalArgumentException("Invalid owner " + owner
+          + " for a ghost vertex");
+    } if (localGraph.containsVertex(vertex)
+        && !ghostOwners.containsKey(vertex)) {
+      throw new IllegalArgumentException("Vertex is owned by this shard");
+    }
+    Integer oldOwner = ghostOwners.get(vertex);
+    if (oldOwner != null && oldOwner != owner) {
+      throw new IllegalArgumentException("Ghost vertex is already owned by"
+          + " shard " + oldOwner);
+    }
+    localGraph.addVertex(vertex);
+    ghostOwners.put(vertex, owner);
+  }
+
+  /***
+   * Adds an edge to the shard. Both vertices must already be in the shard,
+   * and at least one of them must be owned by it.
+   * @param vertex1 First vertex
+   * @param vertex2 Second vertex
+   * @param message Value associated with the edge
+   * @return Old value of the edge if there was one, null otherwise
+   */
+  public String addEdge(T vertex1, T vertex2, String message) {
+    if (vertex1 == null || vertex2 == null) {
+      throw new NullPointerException("Vertex passed is null");
+    } if (ghostOwners.containsKey(vertex1)
+        && ghostOwners.containsKey(vertex2)) {
+      throw new IllegalArgumentException(
+          "Edge between two ghost vertices doesn't belong to this shard");
+    }
+    return localGraph.addEdge(vertex1, vertex2, message);
+  }
+
+  /***
+   * Returns the graph holding the owned vertices, ghost vertices and the
+   * edges between them, without copying it.
+   * @return Local graph of the shard
+   */
+  UndirectedGraph<T> localGraph() {
+    return localGraph;
+  }
+
+  /***
+   * Returns the id of this shard.
+   * @return Id of the shard
+   */
+  public int getShardId() {
+    return shardId;
+  }
+
+  /***
+   * Returns the number of shards the graph is split into.
+   * @return Number of shards
+   */
+  public int getShardCount() {
+    return shardCount;
+  }
+
+  /***
+   * Returns a copy of the local graph of this shard, including ghost vertices
+   * and boundary edges.
+   * @return Copy of the local graph
+   */
+  public UndirectedGraph<T> getLocalGraph() {
+    return new UndirectedGraph<T>(localGraph);
+  }
+
+  /***
+   * Returns List of the vertices owned by this shard
+   * @return List of the vertices owned by this shard
+   */
+  public List<T> getOwnedVertices() {
+    return new ArrayList<T>(ownedVertices);
+  }
+
+  /***
+   * Returns List of the ghost vertices of this shard
+   * @return List of the ghost vertices of this shard
+   */
+  public List<T> getGhostVertices() {
+    return new ArrayList<T>(ghostOwners.keySet());
+  }
+
+  /***
+   * Returns whether a vertex is a ghost copy in this shard.
+   * @param vertex Vertex to check
+   * @return true if the vertex is a ghost in this shard, false if it is owned
+   *     by this shard or not in the shard at all
+   */
+  public boolean isGhost(T vertex) {
+    if (vertex == null) {
+      throw new NullPointerException("Vertex passed is null");
+    }
+    return ghostOwners.containsKey(vertex);
+  }
+
+  /***
+   * Returns the shard that owns a ghost vertex. Throws an exception if the
+   * vertex isn't a ghost in this shard, so use isGhost() to avoid runtime
+   * exceptions.
+   * @param vertex Ghost vertex
+   * @return Id of the shard that owns the vertex
+   */
+  public int getGhostOwner(T vertex) {
+    if (!isGhost(vertex)) {
+      throw new IllegalArgumentException("Vertex isn't a ghost in this shard");
+    }
+    return ghostOwners.get(vertex);
+  }
+
+  /***
+   * Returns the owner of a ghost vertex, or null if the vertex is owned by
+   * this shard. Does no argument checking.
+   */
+  Integer ghostOwnerOrNull(T vertex) {
+    return ghostOwners.get(vertex);
+  }
+}
@@ -0,0 +1,78 @@
+package edu.nyu.cs.graph;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/***
+ * Streams a graph to UTF-8 text in one of the GraphFormats. Lines are
+ * written through a fixed-size buffer that is flushed to the channel
+ * whenever it fills, so unlike toString() the text of the whole graph is
+ * never held in memory.
+ *
+ * @param <T> Type of vertex stored in the graph
+ */
+public class GraphWriter<T> {
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private final GraphFormat format;
+  private final VertexCodec<T> codec;
+
+  /***
+   * @param format Format of the output
+   * @param codec Converts each vertex to text
+   */
+  public GraphWriter(GraphFormat format, VertexCodec<T> codec) {
+    if (format == null) {
+      throw new NullPointerException("Format is null");
+    } if (codec == null) {
+      throw new NullPointerException("Codec is null");
+    }
+    this.format = format;
+    this.codec = codec;
+  }
+
+  /***
+   * Writes a graph to a file, replacing the file if it already exists.
+   * @param graph Graph to write
+   * @param path File to write to
+   * @throws IOException if the file can't be written
+   */
+  public void write(UndirectedGraph<T> graph, Path path) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    try {
+      write(graph, channel);
+    } finally {
+      channel.close();
+    }
+  }
+
+  /***
+   * Writes a graph to a channel. The channel is not closed.
+   * @param graph Graph to write
+   * @param channel Channel to write to
+   * @throws IOException if the channel can't be written
+   */
+  public void write(UndirectedGraph<T> graph, WritableByteChannel channel)
+      throws IOException {
+    if (graph == null) {
+      throw new NullPointerException("Graph is null");
+    } if (channel == null) {
+      throw new NullPointerException("Channel is null");
+    }
+    // Not closed, since closing the writer would close the caller's channel
+    Writer out = new BufferedWriter(
+        Channels.newWriter(channel, UTF_8.newEncoder(), BUFFER_SIZE),
+        BUFFER_SIZE);
+    format.write(graph, codec, out);
+    out.flush();
+  }
+}
@@ -0,0 +1,43 @@
+package edu.nyu.cs.graph;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/***
+ * Partitioner that assigns vertices to shards by the hash code of the
+ * vertex. It is cheap and needs no knowledge of the edges, so any node can
+ * compute the owner of any vertex, but it makes no attempt to keep
+ * neighbors together and so cuts most edges of the graph.
+ *
+ * @param <T> Type of vertex to be partitioned
+ */
+public class HashPartitioner<T> implements GraphPartitioner<T> {
+
+  @Override
+  public Map<T, Integer> partition(UndirectedGraph<T> graph, int shardCount) {
+    if (graph == null) {
+      throw new NullPointerException("Graph passed is null");
+    } if (shardCount < 1) {
+      throw new IllegalArgumentException("Shard count must be positive");
+    }
+    Map<T, Integer> assignment = new HashMap<T, Integer>();
+    for (T vertex : graph.getVertices()) {
+      assignment.put(vertex, shardFor(vertex, shardCount));
+    }
+    return assignment;
+  }
+
+  /***
+   * Returns the shard a vertex hashes to. The hash code is spread before
+   * taking the remainder so that keys differing only in their high bits
+   * don't all land in the same shard.
+   * @param vertex Vertex to place
+   * @param shardCount Number of shards
+   * @return Shard id in the range [0, shardCount)
+   */
+  static int shardFor(Object vertex, int shardCount) {
+    int hash = vertex.hashCode();
+    hash ^= (hash >>> 16);
+    return (hash & 0x7fffffff) % shardCount;
+  }
+}
@@ -0,0 +1,95 @@
+package edu.nyu.cs.graph;
+
+/***
+ * HyperLogLog counters packed into one byte array, used by
+ * ApproximateAnalytics to estimate the number of distinct vertices in a
+ * neighborhood. A counter with precision p is 2^p one-byte registers
+ * starting at some offset in the array and estimates cardinalities with a
+ * relative standard error of about 1.04 / sqrt(2^p). Two counters are
+ * merged by taking the maximum of each register, which makes the union of
+ * two neighborhoods as cheap as one pass over the registers.
+ */
+final class HyperLogLog {
+  static final int MIN_PRECISION = 4;
+  static final int MAX_PRECISION = 16;
+
+  private HyperLogLog() {
+  }
+
+  /***
+   * Adds a hashed element to the counter at the offset.
+   */
+  static void add(byte[] registers, int offset, int precision, long hash) {
+    int register = (int) (hash >>> (64 - precision));
+    // Position of the first 1 bit after the register bits, capped by a
+    // sentinel bit so an all-zero remainder still has a rank
+    byte rank = (byte) (Long.numberOfLeadingZeros(
+        (hash << precision) | (1L << (precision - 1))) + 1);
+    if (registers[offset + register] < rank) {
+      registers[offset + register] = rank;
+    }
+  }
+
+  /***
+   * Merges the counter at the source offset into the counter at the target
+   * offset, and returns whether the target changed.
+   */
+  static boolean union(byte[] target, int targetOffset, byte[] source,
+      int sourceOffset, int precision) {
+    boolean changed = false;
+    int registerCount = 1 << precision;
+    for (int i = 0; i < registerCount; i++) {
+      if (target[targetOffset + i] < source[sourceOffset + i]) {
+        target[targetOffset + i] = source[sourceOffset + i];
+        changed = true;
+      }
+    }
+    return changed;
+  }
+
+  /***
+   * Returns the estimated number of distinct elements added to the counter
+   * at the offset.
+   */
+  static double estimate(byte[] registers, int offset, int precision) {
+    int registerCount = 1 << precision;
+    double sum = 0;
+    int zeros = 0;
+    for (int i = 0; i < registerCount; i++) {
+      byte register = registers[offset + i];
+      sum += 1.0 / (1L << register);
+      if (register == 0) {
+        zeros++;
+      }
+    }
+    double estimate = alpha(registerCount) * registerCount * registerCount
+        / sum;
+    // Small cardinalities are estimated better by counting empty registers
+    if (estimate <= 2.5 * registerCount && zeros > 0) {
+      return registerCount * Math.log((double) registerCount / zeros);
+    }
+    return estimate;
+  }
+
+  /***
+   * Returns a well mixed 64-bit hash of a number (the SplitMix64 finalizer),
+   * so that consecutive ids spread evenly over the registers.
+   */
+  static long hash(long value, long seed) {
+    long z = value + seed + 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  private static double alpha(int registerCount) {
+    if (registerCount == 16) {
+      return 0.673;
+    } else if (registerCount == 32) {
+      return 0.697;
+    } else if (registerCount == 64) {
+      return 0.709;
+    }
+    return 0.7213 / (1 + 1.079 / registerCount);
+  }
+}
@@ -0,0 +1,60 @@
+package edu.nyu.cs.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/***
+ * Snapshot of the adjacency lists of an UndirectedGraph with every vertex
+ * replaced by an int id, used by the vertex orderings so they can work on
+ * arrays instead of hashing vertices. Ids follow the iteration order of the
+ * graph. Self-edges are left out, since they don't affect locality.
+ *
+ * @param <T> Type of vertex stored in the graph
+ */
+class IndexedAdjacency<T> {
+  final List<T> vertices;
+  final int[][] neighbors;
+
+  IndexedAdjacency(UndirectedGraph<T> graph) {
+    vertices = graph.getVertices();
+    Map<T, Integer> ids = new HashMap<T, Integer>();
+    for (int id = 0; id < vertices.size(); id++) {
+      ids.put(vertices.get(id), id);
+    }
+    neighbors = new int[vertices.size()][];
+    for (int id = 0; id < vertices.size(); id++) {
+      T vertex = vertices.get(id);
+      int[] row = new int[graph.neighborsView(vertex).size()];
+      int degree = 0;
+      for (T neighbor : graph.neighborsView(vertex)) {
+        int neighborId = ids.get(neighbor);
+        if (neighborId != id) {
+          row[degree++] = neighborId;
+        }
+      }
+      neighbors[id] = degree == row.length ? row : Arrays.copyOf(row, degree);
+    }
+  }
+
+  int size() {
+    return neighbors.length;
+  }
+
+  int degree(int id) {
+    return neighbors[id].length;
+  }
+
+  /***
+   * Maps a permutation of ids back to the vertices they stand for.
+   */
+  List<T> toVertices(int[] order) {
+    List<T> orderedVertices = new ArrayList<T>(order.length);
+    for (int id : order) {
+      orderedVertices.add(vertices.get(id));
+    }
+    return orderedVertices;
+  }
+}
@@ -0,0 +1,142 @@
+package edu.nyu.cs.graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/***
+ * Partitioner that tries to minimize the number of edges cut between shards
+ * using balanced label propagation. It starts by cutting a breadth-first
+ * ordering of the vertices into equally sized runs, which already keeps most
+ * neighborhoods together, and then repeatedly moves each vertex to the shard
+ * that most of its neighbors belong to, as long as that shard has room. A
+ * shard has room while it holds fewer than
+ * (vertexCount / shardCount) * (1 + imbalance) vertices, so the shards stay
+ * roughly the same size. Propagation stops once a full pass
+ * moves no vertex or the iteration limit is reached. The result is
+ * deterministic for a given graph.
+ *
+ * @param <T> Type of vertex to be partitioned
+ */
+public class LabelPropagationPartitioner<T> implements GraphPartitioner<T> {
+  private static final int DEFAULT_ITERATIONS = 10;
+  private static final double DEFAULT_IMBALANCE = 0.05;
+
+  private final int maxIterations;
+  private final double imbalance;
+
+  public LabelPropagationPartitioner() {
+    this(DEFAULT_ITERATIONS, DEFAULT_IMBALANCE);
+  }
+
+  /***
+   * @param maxIterations Maximum number of passes over the vertices
+   * @param imbalance Fraction by which a shard may exceed the average shard
+   *     size
+   */
+  public LabelPropagationPartitioner(int maxIterations, double imbalance) {
+    if (maxIterations < 0) {
+      throw new IllegalArgumentException("Iterations can't be negative");
+    } if (imbalance < 0) {
+      throw new IllegalArgumentException("Imbalance can't be negative");
+    }
+    this.maxIterations = maxIterations;
+    this.imbalance = imbalance;
+  }
+
+  @Override
+  public Map<T, Integer> partition(UndirectedGraph<T> graph, int shardCount) {
+    if (graph == null) {
+      throw new NullPointerException("Graph passed is null");
+    } if (shardCount < 1) {
+      throw new IllegalArgumentException("Shard count must be positive");
+    }
+    List<T> vertices = breadthFirstOrder(graph);
+    Map<T, Integer> assignment = new HashMap<T, Integer>();
+    int[] shardSizes = new int[shardCount];
+    int runLength = (vertices.size() + shardCount - 1) / shardCount;
+    for (int index = 0; index < vertices.size(); index++) {
+      int shard = index / runLength;
+      assignment.put(vertices.get(index), shard);
+      shardSizes[shard]++;
+    }
+    int capacity = (int) Math.ceil(
+        (double) graph.vertexCount() / shardCount * (1 + imbalance));
+
+    int[] neighborCounts = new int[shardCount];
+    for (int iteration = 0; iteration < maxIterations; iteration++) {
+      int moved = 0;
+      for (T vertex : vertices) {
+        int current = assignment.get(vertex);
+        int best = mostCommonNeighborShard(graph, vertex, assignment,
+            neighborCounts, current);
+        if (best != current && shardSizes[best] < capacity) {
+          assignment.put(vertex, best);
+          shardSizes[current]--;
+          shardSizes[best]++;
+          moved++;
+        }
+      }
+      if (moved == 0) {
+        break;
+      }
+    }
+    return assignment;
+  }
+
+  /***
+   * Returns every vertex of the graph, one component after another, each
+   * component in breadth-first order.
+   */
+  private List<T> breadthFirstOrder(UndirectedGraph<T> graph) {
+    List<T> order = new ArrayList<T>(graph.vertexCount());
+    Set<T> visited = new HashSet<T>();
+    Queue<T> queue = new ArrayDeque<T>();
+    for (T start : graph.getVertices()) {
+      if (!visited.add(start)) {
+        continue;
+      }
+      queue.add(start);
+      while (!queue.isEmpty()) {
+        T vertex = queue.remove();
+        order.add(vertex);
+        for (T neighbor : graph.neighborsView(vertex)) {
+          if (visited.add(neighbor)) {
+            queue.add(neighbor);
+          }
+        }
+      }
+    }
+    return order;
+  }
+
+  /***
+   * Returns the shard that holds the most neighbors of a vertex. Ties are
+   * broken in favor of the vertex's current shard so vertices don't bounce
+   * between equally good shards. The counts array is scratch space and is
+   * left zeroed.
+   */
+  private int mostCommonNeighborShard(UndirectedGraph<T> graph, T vertex,
+      Map<T, Integer> assignment, int[] neighborCounts, int current) {
+    for (T neighbor : graph.neighborsView(vertex)) {
+      if (!neighbor.equals(vertex)) {
+        neighborCounts[assignment.get(neighbor)]++;
+      }
+    }
+    int best = current;
+    for (int shard = 0; shard < neighborCounts.length; shard++) {
+      if (neighborCounts[shard] > neighborCounts[best]) {
+        best = shard;
+      }
+    }
+    for (T neighbor : graph.neighborsView(vertex)) {
+      neighborCounts[assignment.get(neighbor)] = 0;
+    }
+    return best;
+  }
+}
@@ -0,0 +1,118 @@
+package edu.nyu.cs.graph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/***
+ * In-process ShardTransport for running a PartitionedGraph on one machine,
+ * mostly for testing. Messages are buffered per receiving shard and handed
+ * over on each barrier. Every shard must be stepped by its own thread,
+ * since barrier() waits for all of the shards to arrive.
+ *
+ * @param <T> Type of vertex stored in the graph
+ */
+public class LoopbackTransport<T> implements ShardTransport<T> {
+  private final List<List<ShardMessage<T>>> pending;
+  private final List<List<ShardMessage<T>>> delivered;
+  private long messagesSent;
+  private long superstepMessages;
+  private long lastSuperstepMessages;
+  private int arrivedShards;
+  private long barrierGeneration;
+
+  /***
+   * @param shardCount Number of shards that will use this transport
+   */
+  public LoopbackTransport(int shardCount) {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("Shard count must be positive");
+    }
+    pending = new ArrayList<List<ShardMessage<T>>>(shardCount);
+    delivered = new ArrayList<List<ShardMessage<T>>>(shardCount);
+    for (int shard = 0; shard < shardCount; shard++) {
+      pending.add(new ArrayList<ShardMessage<T>>());
+      delivered.add(new ArrayList<ShardMessage<T>>());
+    }
+  }
+
+  @Override
+  public synchronized void send(int fromShard, int toShard,
+      List<ShardMessage<T>> messages) {
+    checkShard(fromShard);
+    checkShard(toShard);
+    pending.get(toShard).addAll(messages);
+    messagesSent += messages.size();
+    superstepMessages += messages.size();
+  }
+
+  @Override
+  public synchronized List<ShardMessage<T>> receive(int shard) {
+    checkShard(shard);
+    List<ShardMessage<T>> messages = delivered.get(shard);
+    delivered.set(shard, new ArrayList<ShardMessage<T>>());
+    return messages;
+  }
+
+  /***
+   * Waits for every shard to arrive. Throws an IllegalStateException if the
+   * thread is interrupted while waiting.
+   */
+  @Override
+  public synchronized long barrier(int shard) {
+    checkShard(shard);
+    long generation = barrierGeneration;
+    arrivedShards++;
+    if (arrivedShards == pending.size()) {
+      for (int receiver = 0; receiver < pending.size(); receiver++) {
+        delivered.get(receiver).addAll(pending.get(receiver));
+        pending.get(receiver).clear();
+      }
+      lastSuperstepMessages = superstepMessages;
+      superstepMessages = 0;
+      arrivedShards = 0;
+      barrierGeneration++;
+      notifyAll();
+    } else {
+      // No shard can finish the next barrier before this one has returned,
+      // so lastSuperstepMessages still belongs to this barrier
+      while (generation == barrierGeneration) {
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          arrivedShards--;
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException(
+              "Interrupted while waiting for other shards", e);
+        }
+      }
+    }
+    return lastSuperstepMessages;
+  }
+
+  @Override
+  public synchronized void reset() {
+    for (int shard = 0; shard < pending.size(); shard++) {
+      pending.get(shard).clear();
+      delivered.get(shard).clear();
+    }
+    superstepMessages = 0;
+    lastSuperstepMessages = 0;
+    arrivedShards = 0;
+  }
+
+  /***
+   * Returns the total number of messages sent through this transport, which
+   * is a measure of how much traffic a partitioning would cause on a real
+   * network.
+   * @return Number of messages sent
+   */
+  public synchronized long getMessagesSent() {
+    return messagesSent;
+  }
+
+  private void checkShard(int shard) {
+    if (shard < 0 || shard >= pending.size()) {
+      throw new IllegalArgumentException("No shard with id " + shard);
+    }
+  }
+}
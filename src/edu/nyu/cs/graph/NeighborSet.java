@@ -0,0 +1,215 @@
+package edu.nyu.cs.graph;
+
+import java.util.AbstractCollection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/***
+ * Adjacency container of a single vertex that adapts to its degree. Most
+ * vertices of real graphs have few neighbors, and for those a plain array
+ * is the smallest and fastest representation, even though contains() and
+ * remove() have to scan it. Hubs with many neighbors would make those scans
+ * crippling, so once a vertex passes the promotion threshold it also keeps
+ * a hash map from each neighbor to its slot in the array, and removed
+ * neighbors leave an empty slot behind instead of shifting the rest. The
+ * array is compacted when more than half of it is empty, and if the vertex
+ * shrinks to half the threshold the map is dropped again. Either way the
+ * neighbors stay in the order they were added, so traversal order doesn't
+ * depend on the degree, and a random neighbor can be picked in constant
+ * time. The set does not check for duplicates on add(), since the graph
+ * only adds a neighbor when the edge is new.
+ *
+ * @param <T> Type of vertex stored in the graph
+ */
+class NeighborSet<T> extends AbstractCollection<T> {
+  static final int DEFAULT_PROMOTION_THRESHOLD = 32;
+  private static final int INITIAL_CAPACITY = 4;
+  private static final Object[] EMPTY = new Object[0];
+
+  private final int promotionThreshold;
+  // Neighbors in insertion order. Once promoted, removed neighbors leave a
+  // null slot behind, so slots in use can exceed the number of neighbors.
+  private Object[] elements;
+  private int slotsUsed;
+  private int size;
+  private Map<T, Integer> slots;
+  private int modCount;
+
+  NeighborSet() {
+    this(DEFAULT_PROMOTION_THRESHOLD);
+  }
+
+  NeighborSet(int promotionThreshold) {
+    this.promotionThreshold = promotionThreshold;
+    elements = EMPTY;
+  }
+
+  NeighborSet(NeighborSet<T> otherSet) {
+    this(otherSet.promotionThreshold);
+    elements = otherSet.slotsUsed == 0 ? EMPTY : new Object[otherSet.slotsUsed];
+    System.arraycopy(otherSet.elements, 0, elements, 0, otherSet.slotsUsed);
+    slotsUsed = otherSet.slotsUsed;
+    size = otherSet.size;
+    if (otherSet.slots != null) {
+      slots = new HashMap<T, Integer>(otherSet.slots);
+    }
+  }
+
+  /***
+   * Returns whether the neighbors are currently indexed by a hash map.
+   */
+  boolean isPromoted() {
+    return slots != null;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean contains(Object vertex) {
+    if (slots != null) {
+      return slots.containsKey(vertex);
+    }
+    return indexOf(vertex) >= 0;
+  }
+
+  @Override
+  public boolean add(T vertex) {
+    modCount++;
+    if (slots == null && size == promotionThreshold) {
+      promote();
+    } if (slotsUsed == elements.length) {
+      Object[] grown = new Object[Math.max(INITIAL_CAPACITY, slotsUsed * 2)];
+      System.arraycopy(elements, 0, grown, 0, slotsUsed);
+      elements = grown;
+    } if (slots != null) {
+      slots.put(vertex, slotsUsed);
+    }
+    elements[slotsUsed++] = vertex;
+    size++;
+    return true;
+  }
+
+  @Override
+  public boolean remove(Object vertex) {
+    if (slots == null) {
+      int index = indexOf(vertex);
+      if (index < 0) {
+        return false;
+      }
+      // Shift rather than swap with the last element to keep insertion order
+      System.arraycopy(elements, index + 1, elements, index,
+          slotsUsed - index - 1);
+      elements[--slotsUsed] = null;
+      size--;
+      modCount++;
+      return true;
+    }
+    Integer slot = slots.remove(vertex);
+    if (slot == null) {
+      return false;
+    }
+    elements[slot] = null;
+    size--;
+    modCount++;
+    if (size <= promotionThreshold / 2) {
+      slots = null;
+      compact();
+    } else if (slotsUsed > size * 2) {
+      compact();
+    }
+    return true;
+  }
+
+  /***
+   * Returns a neighbor chosen uniformly at random. The set must not be
+   * empty.
+   * @param random Source of randomness
+   * @return A random neighbor
+   */
+  @SuppressWarnings("unchecked")
+  T randomElement(Random random) {
+    if (size == 0) {
+      throw new NoSuchElementException("No neighbors to choose from");
+    }
+    // At least half the slots are in use, so this takes two tries on average
+    while (true) {
+      Object element = elements[random.nextInt(slotsUsed)];
+      if (element != null) {
+        return (T) element;
+      }
+    }
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return new SlotIterator();
+  }
+
+  private int indexOf(Object vertex) {
+    for (int i = 0; i < slotsUsed; i++) {
+      if (elements[i].equals(vertex)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void promote() {
+    slots = new HashMap<T, Integer>(promotionThreshold * 4);
+    for (int i = 0; i < slotsUsed; i++) {
+      slots.put((T) elements[i], i);
+    }
+  }
+
+  /***
+   * Moves the neighbors into consecutive slots, keeping their order, and
+   * updates their slot numbers if they are indexed.
+   */
+  @SuppressWarnings("unchecked")
+  private void compact() {
+    Object[] compacted = new Object[Math.max(INITIAL_CAPACITY, size * 2)];
+    int next = 0;
+    for (int i = 0; i < slotsUsed; i++) {
+      if (elements[i] != null) {
+        if (slots != null) {
+          slots.put((T) elements[i], next);
+        }
+        compacted[next++] = elements[i];
+      }
+    }
+    elements = compacted;
+    slotsUsed = next;
+  }
+
+  private class SlotIterator implements Iterator<T> {
+    private final int expectedModCount = modCount;
+    private int index;
+
+    @Override
+    public boolean hasNext() {
+      while (index < slotsUsed && elements[index] == null) {
+        index++;
+      }
+      return index < slotsUsed;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      } if (!hasNext()) {
+        throw new NoSuchElementException("No more elements in the Iterator");
+      }
+      return (T) elements[index++];
+    }
+  }
+}
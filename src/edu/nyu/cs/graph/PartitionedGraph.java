@@ -0,0 +1,139 @@
+package edu.nyu.cs.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/***
+ * An UndirectedGraph split into shards so that it can be processed by
+ * several workers, each of which only holds its own shard. Every vertex is
+ * owned by exactly one shard, chosen by a GraphPartitioner. Edges between
+ * vertices of the same shard live only in that shard. An edge that crosses
+ * shards is stored in both shards, with the far endpoint added to each side
+ * as a ghost vertex. Edge values are copied into the shards, so later changes
+ * to the source graph are not reflected in the partitioned graph.
+ *
+ * @param <T> Type of vertex stored in the graph
+ */
+public class PartitionedGraph<T> {
+  private final List<GraphShard<T>> shards;
+  private final Map<T, Integer> owners;
+  private final int cutEdgeCount;
+
+  /***
+   * Splits a graph into shards.
+   * @param graph Graph to split
+   * @param partitioner Strategy deciding which shard owns each vertex
+   * @param shardCount Number of shards to create
+   */
+  public PartitionedGraph(UndirectedGraph<T> graph,
+      GraphPartitioner<T> partitioner, int shardCount) {
+    if (graph == null) {
+      throw new NullPointerException("Graph passed is null");
+    } if (partitioner == null) {
+      throw new NullPointerException("Partitioner passed is null");
+    } if (shardCount < 1) {
+      throw new IllegalArgumentException("Shard count must be positive");
+    }
+    owners = partitioner.partition(graph, shardCount);
+    shards = new ArrayList<GraphShard<T>>(shardCount);
+    for (int shardId = 0; shardId < shardCount; shardId++) {
+      shards.add(new GraphShard<T>(shardId, shardCount));
+    }
+
+    List<T> vertices = graph.getVertices();
+    for (T vertex : vertices) {
+      Integer owner = owners.get(vertex);
+      if (owner == null || owner < 0 || owner >= shardCount) {
+        throw new IllegalArgumentException(
+            "Partitioner assigned " + vertex + " to an invalid shard");
+      }
+      shards.get(owner).addOwnedVertex(vertex);
+    }
+
+    int cutEdges = 0;
+    Iterator<GraphRecord<T>> edges = graph.edgeIterator();
+    while (edges.hasNext()) {
+      GraphRecord<T> edge = edges.next();
+      int owner1 = owners.get(edge.vertex1);
+      int owner2 = owners.get(edge.vertex2);
+      GraphShard<T> shard1 = shards.get(owner1);
+      if (owner1 != owner2) {
+        // A cut edge is stored on both sides, each with a ghost of the far end
+        GraphShard<T> shard2 = shards.get(owner2);
+        shard1.addGhostVertex(edge.vertex2, owner2);
+        shard2.addGhostVertex(edge.vertex1, owner1);
+        shard2.localGraph().addEdge(edge.vertex1, edge.vertex2, edge.label);
+        cutEdges++;
+      }
+      shard1.localGraph().addEdge(edge.vertex1, edge.vertex2, edge.label);
+    }
+    cutEdgeCount = cutEdges;
+  }
+
+  /***
+   * Returns the number of shards.
+   * @return Number of shards
+   */
+  public int getShardCount() {
+    return shards.size();
+  }
+
+  /***
+   * Returns a shard by id.
+   * @param shardId Id of the shard, in the range [0, getShardCount())
+   * @return The shard with that id
+   */
+  public GraphShard<T> getShard(int shardId) {
+    if (shardId < 0 || shardId >= shards.size()) {
+      throw new IllegalArgumentException("No shard with id " + shardId);
+    }
+    return shards.get(shardId);
+  }
+
+  /***
+   * Returns an unmodifiable list of all shards, indexed by shard id.
+   * @return List of the shards
+   */
+  public List<GraphShard<T>> getShards() {
+    return Collections.unmodifiableList(shards);
+  }
+
+  /***
+   * Returns whether a vertex is in the partitioned graph.
+   * @param vertex Vertex that may or may not be in the graph
+   * @return true if the vertex is owned by one of the shards
+   */
+  public boolean containsVertex(T vertex) {
+    if (vertex == null) {
+      throw new NullPointerException("Vertex passed is null");
+    }
+    return owners.containsKey(vertex);
+  }
+
+  /***
+   * Returns the id of the shard that owns a vertex. Throws an exception if
+   * the vertex isn't in the graph, so use containsVertex() to avoid runtime
+   * exceptions.
+   * @param vertex Vertex to look up
+   * @return Id of the shard owning the vertex
+   */
+  public int getOwner(T vertex) {
+    if (!containsVertex(vertex)) {
+      throw new IllegalArgumentException("Vertex not in the graph");
+    }
+    return owners.get(vertex);
+  }
+
+  /***
+   * Returns the number of edges whose endpoints are owned by different
+   * shards. Lower is better, since every cut edge costs a message whenever a
+   * traversal crosses it.
+   * @return Number of cut edges
+   */
+  public int getCutEdgeCount() {
+    return cutEdgeCount;
+  }
+}
@@ -0,0 +1,163 @@
+package edu.nyu.cs.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/***
+ * Community-based ordering in the style of Rabbit Order. Vertices are
+ * visited from lowest to highest degree, and each one is merged into the
+ * neighboring community that raises the modularity of the graph the most,
+ * if any does. The merges form a tree of communities, and vertices are
+ * numbered by a depth-first walk of that tree so that every community, and
+ * every community nested inside it, gets a contiguous run of ids. Densely
+ * connected groups of vertices therefore end up stored next to each other.
+ *
+ * @param <T> Type of vertex stored in the graph
+ */
+public class RabbitOrdering<T> implements VertexOrdering<T> {
+
+  @Override
+  public List<T> order(UndirectedGraph<T> graph) {
+    final IndexedAdjacency<T> adjacency = new IndexedAdjacency<T>(graph);
+    int size = adjacency.size();
+    long totalDegree = 0;
+    long[] communityDegree = new long[size];
+    List<Map<Integer, Long>> communityEdges =
+        new ArrayList<Map<Integer, Long>>(size);
+    int[] mergedInto = new int[size];
+    List<Integer> byDegree = new ArrayList<Integer>(size);
+    for (int id = 0; id < size; id++) {
+      communityDegree[id] = adjacency.degree(id);
+      totalDegree += adjacency.degree(id);
+      Map<Integer, Long> edges = new HashMap<Integer, Long>();
+      for (int neighbor : adjacency.neighbors[id]) {
+        edges.put(neighbor, 1L);
+      }
+      communityEdges.add(edges);
+      mergedInto[id] = id;
+      byDegree.add(id);
+    }
+    Collections.sort(byDegree, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer id1, Integer id2) {
+        int degree1 = adjacency.degree(id1);
+        int degree2 = adjacency.degree(id2);
+        return degree1 < degree2 ? -1 : (degree1 == degree2 ? 0 : 1);
+      }
+    });
+
+    int[] firstChild = new int[size];
+    int[] lastChild = new int[size];
+    int[] nextSibling = new int[size];
+    for (int id = 0; id < size; id++) {
+      firstChild[id] = -1;
+      lastChild[id] = -1;
+      nextSibling[id] = -1;
+    }
+
+    for (int community : byDegree) {
+      Map<Integer, Long> edges = aggregateEdges(community,
+          communityEdges.get(community), mergedInto);
+      communityEdges.set(community, edges);
+      // Merging u into v changes modularity in proportion to
+      // w(u, v) * 2m - degree(u) * degree(v)
+      int best = -1;
+      double bestGain = 0;
+      for (Map.Entry<Integer, Long> edge : edges.entrySet()) {
+        double gain = (double) edge.getValue() * totalDegree
+            - (double) communityDegree[community]
+            * communityDegree[edge.getKey()];
+        if (gain > bestGain) {
+          best = edge.getKey();
+          bestGain = gain;
+        }
+      }
+      if (best < 0) {
+        continue;
+      }
+      mergedInto[community] = best;
+      communityDegree[best] += communityDegree[community];
+      Map<Integer, Long> bestEdges = communityEdges.get(best);
+      for (Map.Entry<Integer, Long> edge : edges.entrySet()) {
+        if (edge.getKey() != best) {
+          Long weight = bestEdges.get(edge.getKey());
+          bestEdges.put(edge.getKey(),
+              weight == null ? edge.getValue() : weight + edge.getValue());
+        }
+      }
+      communityEdges.set(community, null);
+      if (lastChild[best] < 0) {
+        firstChild[best] = community;
+      } else {
+        nextSibling[lastChild[best]] = community;
+      }
+      lastChild[best] = community;
+    }
+
+    int[] order = new int[size];
+    int placed = 0;
+    int[] stack = new int[size];
+    for (int root = 0; root < size; root++) {
+      if (mergedInto[root] != root) {
+        continue;
+      }
+      int top = 0;
+      stack[top++] = root;
+      while (top > 0) {
+        int community = stack[--top];
+        order[placed++] = community;
+        // Push the children last to first so they come off in merge order
+        int childCount = 0;
+        for (int child = firstChild[community]; child >= 0;
+            child = nextSibling[child]) {
+          stack[top + childCount++] = child;
+        }
+        for (int i = 0, j = childCount - 1; i < j; i++, j--) {
+          int swap = stack[top + i];
+          stack[top + i] = stack[top + j];
+          stack[top + j] = swap;
+        }
+        top += childCount;
+      }
+    }
+    return adjacency.toVertices(order);
+  }
+
+  /***
+   * Rewrites the edge weights of a community so that every key is a
+   * community that still exists, combining the weights of communities that
+   * have since been merged together, and dropping edges to itself.
+   */
+  private static Map<Integer, Long> aggregateEdges(int community,
+      Map<Integer, Long> edges, int[] mergedInto) {
+    Map<Integer, Long> aggregated = new HashMap<Integer, Long>();
+    for (Map.Entry<Integer, Long> edge : edges.entrySet()) {
+      int target = find(edge.getKey(), mergedInto);
+      if (target != community) {
+        Long weight = aggregated.get(target);
+        aggregated.put(target,
+            weight == null ? edge.getValue() : weight + edge.getValue());
+      }
+    }
+    return aggregated;
+  }
+
+  private static int find(int id, int[] mergedInto) {
+    int root = id;
+    while (mergedInto[root] != root) {
+      root = mergedInto[root];
+    }
+    // Path compression only shortcuts lookups; the tree used for numbering
+    // is kept separately in the child and sibling arrays
+    while (mergedInto[id] != root) {
+      int next = mergedInto[id];
+      mergedInto[id] = root;
+      id = next;
+    }
+    return root;
+  }
+}
@@ -0,0 +1,42 @@
+package edu.nyu.cs.graph;
+
+/***
+ * Message sent between shards during a distributed traversal. It names a
+ * vertex owned by the receiving shard and a value proposed for it, such as a
+ * BFS distance or a component label.
+ *
+ * @param <T> Type of vertex stored in the graph
+ */
+public final class ShardMessage<T> {
+  private final T vertex;
+  private final long value;
+
+  public ShardMessage(T vertex, long value) {
+    if (vertex == null) {
+      throw new NullPointerException("Vertex passed is null");
+    }
+    this.vertex = vertex;
+    this.value = value;
+  }
+
+  /***
+   * Returns the vertex the message is about.
+   * @return Vertex owned by the receiving shard
+   */
+  public T getVertex() {
+    return vertex;
+  }
+
+  /***
+   * Returns the value proposed for the vertex.
+   * @return Proposed value
+   */
+  public long getValue() {
+    return value;
+  }
+
+  @Override
+  public String toString() {
+    return vertex + "=" + value;
+  }
+}
@@ -0,0 +1,52 @@
+package edu.nyu.cs.graph;
+
+import java.util.List;
+
+/***
+ * Moves frontier messages between the shards of a PartitionedGraph. A
+ * traversal works in supersteps: during a superstep each shard's
+ * ShardWorker receives the messages addressed to it, does its local work
+ * and sends messages to other shards, and then calls barrier(). Messages
+ * sent before a barrier must be visible to receive() after it, and must not
+ * be visible before it. The barrier also tells every shard how many
+ * messages were sent in the superstep by all shards together, which is how
+ * the workers agree to stop. Implementations backed by a network would
+ * batch the messages per destination, flush them on the barrier and sum the
+ * message counts of all nodes there.
+ *
+ * @param <T> Type of vertex stored in the graph
+ */
+public interface ShardTransport<T> {
+
+  /***
+   * Sends a batch of messages from one shard to another.
+   * @param fromShard Id of the sending shard
+   * @param toShard Id of the receiving shard
+   * @param messages Messages to deliver
+   */
+  void send(int fromShard, int toShard, List<ShardMessage<T>> messages);
+
+  /***
+   * Returns and removes every message delivered to a shard by the last
+   * barrier.
+   * @param shard Id of the receiving shard
+   * @return Messages for the shard, empty if there are none
+   */
+  List<ShardMessage<T>> receive(int shard);
+
+  /***
+   * Ends the current superstep for one shard. Blocks until every shard has
+   * called barrier(), then makes every message sent in the superstep
+   * available to its receiver.
+   * @param shard Id of the calling shard
+   * @return Number of messages sent by all shards during the superstep
+   */
+  long barrier(int shard);
+
+  /***
+   * Discards every message and barrier arrival left over from an earlier
+   * traversal, such as one that failed partway through. Called before each
+   * traversal, while no shard is using the transport.
+   */
+  void reset();
+}
@@ -0,0 +1,189 @@
+package edu.nyu.cs.graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/***
+ * Runs one shard's part of a traversal in bulk-synchronous supersteps. A
+ * worker only looks at its own shard: it takes the messages sent to it,
+ * propagates values through its local vertices, and when it reaches a ghost
+ * vertex sends the value on to the shard that owns it through the
+ * ShardTransport. Every shard needs a worker, and all of them must be
+ * started the same way and then stepped with superstep() until it returns
+ * false, which happens on every worker after the same superstep: the first
+ * one in which no shard sent a message. The workers share nothing except
+ * the transport, so each can run on its own thread or node.
+ *
+ * Values only ever decrease: a vertex takes the smallest value proposed for
+ * it, and a neighbor is proposed the vertex's value plus the edge cost. With
+ * a cost of one this computes BFS distances, and with a cost of zero it
+ * spreads the minimum label through each component.
+ *
+ * @param <T> Type of vertex stored in the graph
+ */
+public class ShardWorker<T> {
+  private final GraphShard<T> shard;
+  private final ShardTransport<T> transport;
+  private final Map<T, Long> values;
+  private final Map<T, Long> sentToGhosts;
+  private final Queue<T> frontier;
+  private long edgeCost;
+  private boolean started;
+  private int superstepCount;
+
+  /***
+   * @param shard Shard this worker runs on
+   * @param transport Transport shared with the workers of the other shards
+   */
+  public ShardWorker(GraphShard<T> shard, ShardTransport<T> transport) {
+    if (shard == null) {
+      throw new NullPointerException("Shard passed is null");
+    } if (transport == null) {
+      throw new NullPointerException("Transport is null");
+    }
+    this.shard = shard;
+    this.transport = transport;
+    values = new HashMap<T, Long>();
+    sentToGhosts = new HashMap<T, Long>();
+    frontier = new ArrayDeque<T>();
+  }
+
+  /***
+   * Prepares a breadth-first search from the provided vertex. Every worker
+   * must be given the same vertex, and only the one whose shard owns it
+   * starts from it. Afterwards the value of a vertex is the number of edges
+   * on the shortest path to it.
+   * @param startingVertex First vertex in the traversal
+   */
+  public void startBfs(T startingVertex) {
+    if (startingVertex == null) {
+      throw new NullPointerException("Starting vertex is null");
+    }
+    reset(1);
+    if (shard.localGraph().containsVertex(startingVertex)
+        && !shard.isGhost(startingVertex)) {
+      relax(startingVertex, 0);
+    }
+  }
+
+  /***
+   * Prepares a connected components labelling. Afterwards two vertices have
+   * the same value if and only if there is a path between them.
+   */
+  public void startConnectedComponents() {
+    reset(0);
+    // Labels are unique without coordination because each shard only hands
+    // out labels congruent to its own id
+    long label = shard.getShardId();
+    for (T vertex : shard.getOwnedVertices()) {
+      relax(vertex, label);
+      label += shard.getShardCount();
+    }
+  }
+
+  /***
+   * Runs one superstep and waits at the transport's barrier for the other
+   * shards to finish theirs.
+   * @return true if any shard sent a message, so another superstep is
+   *     needed, false if the traversal is done
+   */
+  public boolean superstep() {
+    if (!started) {
+      throw new IllegalStateException("Worker hasn't been started");
+    }
+    step();
+    superstepCount++;
+    return transport.barrier(shard.getShardId()) > 0;
+  }
+
+  /***
+   * Runs supersteps until the traversal is done.
+   */
+  public void run() {
+    while (superstep()) {
+      // Every superstep does its work in superstep()
+    }
+  }
+
+  /***
+   * Returns the values reached so far by the vertices this shard owns.
+   * Vertices the traversal hasn't reached are not in the map.
+   * @return Map from owned vertices to their values
+   */
+  public Map<T, Long> getValues() {
+    return new HashMap<T, Long>(values);
+  }
+
+  /***
+   * Returns the number of supersteps run since the worker was last started.
+   * @return Number of supersteps
+   */
+  public int getSuperstepCount() {
+    return superstepCount;
+  }
+
+  private void reset(long cost) {
+    edgeCost = cost;
+    values.clear();
+    sentToGhosts.clear();
+    frontier.clear();
+    superstepCount = 0;
+    started = true;
+  }
+
+  private void relax(T vertex, long value) {
+    Long current = values.get(vertex);
+    if (current == null || value < current) {
+      values.put(vertex, value);
+      frontier.add(vertex);
+    }
+  }
+
+  private void step() {
+    for (ShardMessage<T> message : transport.receive(shard.getShardId())) {
+      relax(message.getVertex(), message.getValue());
+    }
+
+    Map<T, Long> ghostProposals = new HashMap<T, Long>();
+    UndirectedGraph<T> localGraph = shard.localGraph();
+    while (!frontier.isEmpty()) {
+      T vertex = frontier.remove();
+      long proposal = values.get(vertex) + edgeCost;
+      for (T neighbor : localGraph.neighborsView(vertex)) {
+        if (shard.ghostOwnerOrNull(neighbor) == null) {
+          relax(neighbor, proposal);
+        } else {
+          Long best = ghostProposals.get(neighbor);
+          if (best == null || proposal < best) {
+            ghostProposals.put(neighbor, proposal);
+          }
+        }
+      }
+    }
+
+    // Only forward values that improve on what the owner was already sent
+    Map<Integer, List<ShardMessage<T>>> outbox =
+        new HashMap<Integer, List<ShardMessage<T>>>();
+    for (Map.Entry<T, Long> entry : ghostProposals.entrySet()) {
+      Long lastSent = sentToGhosts.get(entry.getKey());
+      if (lastSent == null || entry.getValue() < lastSent) {
+        sentToGhosts.put(entry.getKey(), entry.getValue());
+        Integer owner = shard.ghostOwnerOrNull(entry.getKey());
+        List<ShardMessage<T>> batch = outbox.get(owner);
+        if (batch == null) {
+          batch = new ArrayList<ShardMessage<T>>();
+          outbox.put(owner, batch);
+        }
+        batch.add(new ShardMessage<T>(entry.getKey(), entry.getValue()));
+      }
+    }
+    for (Map.Entry<Integer, List<ShardMessage<T>>> entry
+        : outbox.entrySet()) {
+      transport.send(shard.getShardId(), entry.getKey(), entry.getValue());
+    }
+  }
+}
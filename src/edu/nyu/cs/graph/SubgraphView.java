@@ -0,0 +1,136 @@
+package edu.nyu.cs.graph;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/***
+ * Read-only view of a subgraph of an UndirectedGraph, as returned by
+ * subgraph() and egoNetwork(). The view only stores its set of vertices and
+ * answers every query by filtering the parent graph, so it shares the
+ * parent's adjacency lists and edge values. The set of vertices the view may
+ * hold is fixed when it is created, and a vertex is in the view while it is
+ * also in the parent. Edges added to or removed from the parent between
+ * vertices of the view show up in the view, a vertex removed from the parent
+ * disappears from it and rejoins it if added back, and other vertices added
+ * to the parent never join it. Like UndirectedGraph, a view is not
+ * thread-safe.
+ *
+ * @param <T> Type of vertex stored in the graph
+ */
+public class SubgraphView<T> {
+  private final UndirectedGraph<T> parent;
+  private final Set<T> vertices;
+
+  SubgraphView(UndirectedGraph<T> parent, Set<T> vertices) {
+    this.parent = parent;
+    this.vertices = vertices;
+  }
+
+  /***
+   * Returns whether there are any vertices in the subgraph.
+   * @return returns true if there is at least one vertex in the subgraph
+   */
+  public boolean isEmpty() {
+    for (T vertex : vertices) {
+      if (parent.containsVertex(vertex)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /***
+   * Returns true a vertex is present in the subgraph, false otherwise
+   * @param vertex Vertex that may or may not be in the subgraph
+   * @return Returns true a vertex is present in the subgraph, false otherwise
+   */
+  public boolean containsVertex(T vertex) {
+    if (vertex == null) {
+      throw new NullPointerException("Vertex passed is null");
+    }
+    return vertices.contains(vertex) && parent.containsVertex(vertex);
+  }
+
+  /***
+   * Returns List of all vertices in the subgraph
+   * @return Returns List of all vertices in the subgraph
+   */
+  public List<T> getVertices() {
+    List<T> vertexList = new ArrayList<T>(vertices.size());
+    for (T vertex : vertices) {
+      if (parent.containsVertex(vertex)) {
+        vertexList.add(vertex);
+      }
+    }
+    return vertexList;
+  }
+
+  /***
+   * Returns a list of the neighbors of the passed vertex that are also in
+   * the subgraph. Use in conjunction with containsVertex() to avoid
+   * exceptions at runtime.
+   * @param vertex Value of the vertex whose neighbors you're looking for.
+   * @return List of the neighbors of the argument within the subgraph.
+   */
+  public List<T> getNeighbors(T vertex) {
+    if (!containsVertex(vertex)) {
+      throw new IllegalArgumentException("Vertex not in the subgraph");
+    }
+    List<T> neighbors = new ArrayList<T>();
+    for (T neighbor : parent.neighborsView(vertex)) {
+      if (vertices.contains(neighbor)) {
+        neighbors.add(neighbor);
+      }
+    }
+    return neighbors;
+  }
+
+  /***
+   * Returns whether an edge exists between two vertices of the subgraph.
+   * Vertex order does not matter.
+   * @param vertex1 First vertex of the vertex pair
+   * @param vertex2 Second vertex of the vertex pair
+   * @return true if both vertices are in the subgraph and an edge exists
+   *     between them, false if not
+   */
+  public boolean hasEdge(T vertex1, T vertex2) {
+    return containsVertex(vertex1) && containsVertex(vertex2)
+        && parent.hasEdge(vertex1, vertex2);
+  }
+
+  /***
+   * Returns the value of an edge between two vertices of the subgraph.
+   * Vertex order does not matter. Throws an IllegalArgumentException if
+   * there isn't such an edge in the subgraph. Use hasEdge() to avoid
+   * runtime exceptions.
+   * @param vertex1 First vertex of the edge pair
+   * @param vertex2 Second vertex of the edge pair
+   * @return Value of the String associated with the edge between the vertices
+   */
+  public String getEdge(T vertex1, T vertex2) {
+    if (!containsVertex(vertex1) || !containsVertex(vertex2)) {
+      throw new IllegalArgumentException("Vertex not in the subgraph");
+    }
+    return parent.getEdge(vertex1, vertex2);
+  }
+
+  /***
+   * Copies the subgraph into a new, independent UndirectedGraph. The edge
+   * values are shared with the parent, but since Strings are immutable that
+   * is not observable.
+   * @return New graph holding the vertices and edges of the subgraph
+   */
+  public UndirectedGraph<T> materialize() {
+    UndirectedGraph<T> graph = new UndirectedGraph<T>();
+    List<T> vertexList = getVertices();
+    graph.addVertices(vertexList);
+    Iterator<GraphRecord<T>> edges = parent.edgeIterator(vertexList, vertices);
+    while (edges.hasNext()) {
+      GraphRecord<T> edge = edges.next();
+      graph.addEdge(edge.vertex1, edge.vertex2, edge.label);
+    }
+    return graph;
+  }
+}
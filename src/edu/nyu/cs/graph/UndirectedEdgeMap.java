@@ -1,5 +1,6 @@
 package edu.nyu.cs.graph;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -87,4 +88,13 @@ class UndirectedEdgeMap<K, V> {
     edgeSet.add(vertex2);
     return edgeSetToEdgeMap.remove(edgeSet);
   }
+  
+  /***
+   * Returns a read-only view of every edge, each as the set of its one or
+   * two vertices.
+   * @return Unmodifiable view of the edges
+   */
+  Set<Set<K>> edgeSet() {
+    return Collections.unmodifiableSet(edgeSetToEdgeMap.keySet());
+  }
 }
\ No newline at end of file
@@ -2,11 +2,15 @@ package edu.nyu.cs.graph;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
 
 /***
  * Undirected graph implementation. Nodes must be non-null and unique.
@@ -22,16 +26,25 @@ import java.util.NoSuchElementException;
  * @param <T> Type of vertex to be stored
  */
 public class UndirectedGraph<T> {
-  private final Map<T, List<T>> adjacencyMap;
+  // Neighbor containers switch from arrays to hash sets for hubs, see
+  // NeighborSet
+  private final Map<T, NeighborSet<T>> adjacencyMap;
   private final UndirectedEdgeMap<T, String> edgeMap;
+  // Counts changes to the vertices and edges, but not to edge values, so
+  // that snapshots of the structure can tell when they're out of date
+  private int modCount;
   
   public UndirectedGraph() {
-    adjacencyMap = new HashMap<T, List<T>>();
+    adjacencyMap = new HashMap<T, NeighborSet<T>>();
     edgeMap = new UndirectedEdgeMap<T, String>();
   }
   
   public UndirectedGraph(UndirectedGraph<T> otherGraph) {
-    this.adjacencyMap = otherGraph.getAdjacencyMap();
+    this.adjacencyMap = new HashMap<T, NeighborSet<T>>();
+    for (Map.Entry<T, NeighborSet<T>> entry
+        : otherGraph.adjacencyMap.entrySet()) {
+      adjacencyMap.put(entry.getKey(), new NeighborSet<T>(entry.getValue()));
+    }
     this.edgeMap = new UndirectedEdgeMap<T, String>(otherGraph.edgeMap);
   }
   
@@ -89,7 +102,8 @@ public class UndirectedGraph<T> {
     if (adjacencyMap.containsKey(vertex)) {
       return false;
     }
-    adjacencyMap.put(vertex, new ArrayList<T>());
+    adjacencyMap.put(vertex, new NeighborSet<T>());
+    modCount++;
     return true;
   }
   
@@ -133,6 +147,9 @@ public class UndirectedGraph<T> {
     }
     String oldEdgeValue = edgeMap.addEdge(vertex1, vertex2, message);
     updateAdjacencyMapNewEdge(vertex1, vertex2, oldEdgeValue);
+    if (oldEdgeValue == null) {
+      modCount++;
+    }
     return oldEdgeValue;
   }
   
@@ -166,7 +183,17 @@ public class UndirectedGraph<T> {
    */
   public boolean hasEdge(T vertex1, T vertex2) {
     nullEdgeCheck(vertex1, vertex2);
-    return edgeMap.containsEdge(vertex1, vertex2);
+    NeighborSet<T> neighbors1 = adjacencyMap.get(vertex1);
+    NeighborSet<T> neighbors2 = adjacencyMap.get(vertex2);
+    if (neighbors1 == null || neighbors2 == null) {
+      return false;
+    }
+    // Probing the smaller side avoids both scanning a long array and the
+    // key set the edge map would allocate
+    if (neighbors1.size() <= neighbors2.size()) {
+      return neighbors1.contains(vertex2);
+    }
+    return neighbors2.contains(vertex1);
   }
   
   /***
@@ -180,9 +207,20 @@ public class UndirectedGraph<T> {
    */
   public String getEdge(T vertex1, T vertex2) {
     nullEdgeCheck(vertex1, vertex2);
-    if (edgeMap.getEdge(vertex1, vertex2) == null) {
+    String edgeValue = edgeMap.getEdge(vertex1, vertex2);
+    if (edgeValue == null) {
       throw new IllegalArgumentException("The vertices aren't connected");
     }
+    return edgeValue;
+  }
+
+  /***
+   * Returns the value of the edge between two vertices, or null if they
+   * aren't connected, with a single lookup in the edge map. Does no
+   * argument checking, so it is meant for copying edges whose ends come
+   * from the adjacency lists.
+   */
+  String edgeValueOrNull(T vertex1, T vertex2) {
     return edgeMap.getEdge(vertex1, vertex2);
   }
   
@@ -200,7 +238,7 @@ public class UndirectedGraph<T> {
       throw new NoSuchElementException("Vertex is not in the graph");
     }
     
-    List<T> adjacentValues = adjacencyMap.get(vertex);
+    NeighborSet<T> adjacentValues = adjacencyMap.get(vertex);
     for (T neighbor : adjacentValues) {
       if (!neighbor.equals(vertex)) {
         adjacencyMap.get(neighbor).remove(vertex);
@@ -208,6 +246,7 @@ public class UndirectedGraph<T> {
       edgeMap.removeEdge(vertex, neighbor);
     }
     adjacencyMap.remove(vertex); 
+    modCount++;
   }
   
   /***
@@ -229,6 +268,11 @@ public class UndirectedGraph<T> {
     } if (edgeMap.getEdge(vertex1, vertex2) == null) {
       throw new IllegalArgumentException("The vertices aren't connected");
     } 
+    adjacencyMap.get(vertex1).remove(vertex2);
+    if (!vertex1.equals(vertex2)) {
+      adjacencyMap.get(vertex2).remove(vertex1);
+    }
+    modCount++;
     return edgeMap.removeEdge(vertex1, vertex2);
   }
   
@@ -260,12 +304,101 @@ public class UndirectedGraph<T> {
   public Map<T, List<T>> getAdjacencyMap() {
     Map<T, List<T>> copiedMap = new HashMap<T, List<T>>();
     for (T key : adjacencyMap.keySet()) {
-      List<T> neighbors = adjacencyMap.get(key);
+      NeighborSet<T> neighbors = adjacencyMap.get(key);
       copiedMap.put(key, new ArrayList<T>(neighbors));
     }
     return copiedMap;
   }
   
+  /***
+   * Returns a view of the subgraph induced by the provided vertices: those
+   * vertices and every edge of this graph between two of them. The view
+   * shares storage with this graph instead of copying it, so creating it
+   * only costs the size of the collection, and later changes to the edges of
+   * this graph show through it. Use materialize() on the view to get an
+   * independent copy. An exception will be thrown if the collection or any
+   * vertex in it is null, or if a vertex isn't in the graph.
+   * @param vertices Vertices of the subgraph
+   * @return View of the induced subgraph
+   */
+  public SubgraphView<T> subgraph(Collection<T> vertices) {
+    if (vertices == null) {
+      throw new NullPointerException("Vertex collection is null");
+    }
+    Set<T> subgraphVertices = new HashSet<T>();
+    for (T vertex : vertices) {
+      if (!containsVertex(vertex)) {
+        throw new IllegalArgumentException(vertex + " is not in the graph");
+      }
+      subgraphVertices.add(vertex);
+    }
+    return new SubgraphView<T>(this, subgraphVertices);
+  }
+
+  /***
+   * Returns a view of the ego network of a vertex: the subgraph induced by
+   * every vertex at most radius edges away from it. Only the neighborhoods
+   * of vertices closer than radius are scanned, so the cost is proportional
+   * to the size of the ego network rather than the whole graph. The view
+   * behaves like the one returned by subgraph(). An exception will be thrown
+   * if the center is null or not in the graph, or if the radius is negative.
+   * @param center Vertex at the center of the network
+   * @param radius Maximum number of edges between the center and a vertex
+   *     of the network
+   * @return View of the ego network
+   */
+  public SubgraphView<T> egoNetwork(T center, int radius) {
+    if (center == null) {
+      throw new NullPointerException("Center vertex is null");
+    } if (!containsVertex(center)) {
+      throw new IllegalArgumentException("Vertex is not in the graph");
+    } if (radius < 0) {
+      throw new IllegalArgumentException("Radius can't be negative");
+    }
+    Set<T> egoVertices = new HashSet<T>();
+    egoVertices.add(center);
+    List<T> frontier = new ArrayList<T>();
+    frontier.add(center);
+    for (int distance = 0; distance < radius && !frontier.isEmpty();
+        distance++) {
+      List<T> nextFrontier = new ArrayList<T>();
+      for (T vertex : frontier) {
+        for (T neighbor : adjacencyMap.get(vertex)) {
+          if (egoVertices.add(neighbor)) {
+            nextFrontier.add(neighbor);
+          }
+        }
+      }
+      frontier = nextFrontier;
+    }
+    return new SubgraphView<T>(this, egoVertices);
+  }
+
+  /***
+   * Returns an immutable, compact copy of the graph for fast traversal, with
+   * the vertices numbered in the iteration order of this graph.
+   * @return Compact snapshot of the graph
+   */
+  public CompactGraph<T> freeze() {
+    return new CompactGraph<T>(this, getVertices());
+  }
+
+  /***
+   * Returns an immutable, compact copy of the graph for fast traversal, with
+   * the vertices numbered in the order chosen by the provided ordering.
+   * Orderings that place neighbors close together, such as
+   * CuthillMcKeeOrdering or RabbitOrdering, make traversals of the copy
+   * faster on large graphs.
+   * @param ordering Strategy for numbering the vertices
+   * @return Compact snapshot of the graph
+   */
+  public CompactGraph<T> freeze(VertexOrdering<T> ordering) {
+    if (ordering == null) {
+      throw new NullPointerException("Ordering is null");
+    }
+    return new CompactGraph<T>(this, ordering.order(this));
+  }
+
   /***
    * Returns BreadthFirstSearch iterator starting from the provided vertex. 
    * There is no guarantee as to the specific order in which the vertices will
@@ -301,7 +434,85 @@ public class UndirectedGraph<T> {
     }
     return new DepthFirstIterator<T>(this, startingVertex);
   }
-  
+
+  /***
+   * Returns a read-only view of the neighbors of a vertex without copying
+   * them, for use by the algorithms in this package that scan every
+   * adjacency list. The vertex must be in the graph.
+   * @param vertex Vertex whose neighbors you're looking for
+   * @return Unmodifiable view of the neighbors of the vertex
+   */
+  Collection<T> neighborsView(T vertex) {
+    return Collections.unmodifiableCollection(adjacencyMap.get(vertex));
+  }
+
+  /***
+   * Returns a neighbor of a vertex chosen uniformly at random, in constant
+   * time even for hubs. The vertex must be in the graph and have at least
+   * one neighbor.
+   * @param vertex Vertex whose neighbor you're looking for
+   * @param random Source of randomness
+   * @return A random neighbor of the vertex
+   */
+  T randomNeighbor(T vertex, Random random) {
+    return adjacencyMap.get(vertex).randomElement(random);
+  }
+
+  /***
+   * Returns a read-only view of the vertices without copying them.
+   * @return Unmodifiable view of the vertices
+   */
+  Collection<T> verticesView() {
+    return Collections.unmodifiableSet(adjacencyMap.keySet());
+  }
+
+  /***
+   * Returns a read-only view of every edge without copying them, each as
+   * the set of its one or two vertices.
+   * @return Unmodifiable view of the edges
+   */
+  Collection<Set<T>> edgesView() {
+    return edgeMap.edgeSet();
+  }
+
+  /***
+   * Returns an iterator over every edge of the graph, each returned once
+   * with its value. See EdgeIterator.
+   * @return Iterator over the edges
+   */
+  Iterator<GraphRecord<T>> edgeIterator() {
+    return new EdgeIterator<T>(this, verticesView(), null);
+  }
+
+  /***
+   * Returns an iterator over the edges of the given vertices whose other end
+   * is in members, each returned once with its value. See EdgeIterator.
+   * @param vertices Vertices of this graph whose edges are returned
+   * @param members Vertices the other end must be in, or null for any vertex
+   * @return Iterator over the edges
+   */
+  Iterator<GraphRecord<T>> edgeIterator(Collection<T> vertices,
+      Set<T> members) {
+    return new EdgeIterator<T>(this, vertices, members);
+  }
+
+  /***
+   * Returns a number that changes whenever a vertex or edge is added or
+   * removed.
+   * @return Count of structural changes
+   */
+  int modCount() {
+    return modCount;
+  }
+
+  /***
+   * Returns the number of vertices in the graph without copying them.
+   * @return Number of vertices in the graph
+   */
+  int vertexCount() {
+    return adjacencyMap.size();
+  }
+
   /***
    * Testing method to check if adjacency mapping is properly maintained
    * when deleting nodes. Returns true if the from vertex is connected
@@ -0,0 +1,57 @@
+package edu.nyu.cs.graph;
+
+/***
+ * Converts vertices to and from the text used by GraphReader and
+ * GraphWriter. decode(encode(vertex)) must equal the original vertex.
+ * Implementations must be safe to call from several threads at once, since
+ * GraphReader parses chunks of the input in parallel.
+ *
+ * @param <T> Type of vertex to be converted
+ */
+public interface VertexCodec<T> {
+
+  /***
+   * Codec for graphs whose vertices are Strings.
+   */
+  VertexCodec<String> STRINGS = new VertexCodec<String>() {
+    @Override
+    public String encode(String vertex) {
+      return vertex;
+    }
+
+    @Override
+    public String decode(String text) {
+      return text;
+    }
+  };
+
+  /***
+   * Codec for graphs whose vertices are Integers.
+   */
+  VertexCodec<Integer> INTEGERS = new VertexCodec<Integer>() {
+    @Override
+    public String encode(Integer vertex) {
+      return vertex.toString();
+    }
+
+    @Override
+    public Integer decode(String text) {
+      return Integer.valueOf(text);
+    }
+  };
+
+  /***
+   * Returns the text form of a vertex.
+   * @param vertex Vertex to convert
+   * @return Text form of the vertex
+   */
+  String encode(T vertex);
+
+  /***
+   * Returns the vertex a piece of text stands for. Throws an
+   * IllegalArgumentException if the text isn't a valid vertex.
+   * @param text Text form of a vertex
+   * @return The vertex
+   */
+  T decode(String text);
+}
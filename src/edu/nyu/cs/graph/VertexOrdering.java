@@ -0,0 +1,22 @@
+package edu.nyu.cs.graph;
+
+import java.util.List;
+
+/***
+ * Strategy for numbering the vertices of a graph when it is frozen into a
+ * CompactGraph. Vertices that are numbered close together are stored close
+ * together, so a good ordering places the neighbors of each vertex near it
+ * and makes traversals hit the CPU cache more often.
+ *
+ * @param <T> Type of vertex stored in the graph
+ */
+public interface VertexOrdering<T> {
+
+  /***
+   * Returns every vertex of the graph exactly once, in the order they
+   * should be numbered.
+   * @param graph Graph whose vertices are ordered
+   * @return The vertices of the graph in their new order
+   */
+  List<T> order(UndirectedGraph<T> graph);
+}
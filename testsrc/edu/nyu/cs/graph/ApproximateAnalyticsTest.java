@@ -0,0 +1,186 @@
+package edu.nyu.cs.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.SortedMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ApproximateAnalyticsTest {
+  UndirectedGraph<Integer> testGraph;
+  ApproximateAnalytics<Integer> analytics;
+
+  @Before
+  public void setup() {
+    // A path 0 - 1 - ... - 199, a cycle of 100 through 200 ... 299 and
+    // the isolated vertex 300 with a self-edge
+    testGraph = new UndirectedGraph<Integer>();
+    for (int i = 0; i <= 300; i++) {
+      testGraph.addVertex(i);
+    }
+    for (int i = 0; i < 199; i++) {
+      testGraph.addEdge(i, i + 1, "");
+    }
+    for (int i = 0; i < 100; i++) {
+      testGraph.addEdge(200 + i, 200 + (i + 1) % 100, "");
+    }
+    testGraph.addEdge(300, 300, "");
+    analytics = new ApproximateAnalytics<Integer>(testGraph, 10,
+        new Random(42));
+  }
+
+  private void assertClose(double expected, double actual) {
+    assertTrue("Expected about " + expected + " but was " + actual,
+        Math.abs(actual - expected) <= 0.15 * expected);
+  }
+
+  @Test
+  public void testNeighborhoodSizes() {
+    Map<Integer, Double> sizes = analytics.estimateNeighborhoodSizes(10);
+    assertEquals(301, sizes.size());
+    assertClose(11, sizes.get(0));
+    assertClose(21, sizes.get(100));
+    assertClose(21, sizes.get(250));
+    assertClose(1, sizes.get(300));
+
+    Map<Integer, Double> self = analytics.estimateNeighborhoodSizes(0);
+    assertClose(1, self.get(100));
+  }
+
+  @Test
+  public void testComponentSizes() {
+    Map<Integer, Integer> sizes = analytics.getComponentSizes();
+    assertEquals(301, sizes.size());
+    assertEquals((Integer) 200, sizes.get(0));
+    assertEquals((Integer) 200, sizes.get(199));
+    assertEquals((Integer) 100, sizes.get(250));
+    assertEquals((Integer) 1, sizes.get(300));
+  }
+
+  @Test
+  public void testNeighborhoodFunction() {
+    double[] function = analytics.estimateNeighborhoodFunction(300);
+    // Every pair within a component is reached by hop 199, so the
+    // neighborhoods stop growing by then
+    assertTrue(function.length <= 200);
+    assertClose(301, function[0]);
+    assertClose(200 * 200 + 100 * 100 + 1, function[function.length - 1]);
+    for (int hop = 1; hop < function.length; hop++) {
+      assertTrue(function[hop] >= function[hop - 1]);
+    }
+
+    double[] shortFunction = analytics.estimateNeighborhoodFunction(5);
+    assertEquals(6, shortFunction.length);
+    // Path vertices within 5 hops of an end have fewer than 11 neighbors
+    assertClose(200 * 11 - 2 * 15 + 100 * 11 + 1, shortFunction[5]);
+    assertEquals(1, analytics.estimateNeighborhoodFunction(0).length);
+  }
+
+  @Test
+  public void testMaximumPrecision() {
+    // At precision 16 a chunk holds 1024 counters, so this needs two
+    UndirectedGraph<Integer> cycle = new UndirectedGraph<Integer>();
+    for (int i = 0; i < 1100; i++) {
+      cycle.addVertex(i);
+    }
+    for (int i = 0; i < 1100; i++) {
+      cycle.addEdge(i, (i + 1) % 1100, "");
+    }
+    Map<Integer, Double> sizes = new ApproximateAnalytics<Integer>(cycle, 16,
+        new Random(42)).estimateNeighborhoodSizes(1);
+    assertEquals(1100, sizes.size());
+    assertClose(3, sizes.get(0));
+    assertClose(3, sizes.get(1023));
+    assertClose(3, sizes.get(1024));
+    assertClose(3, sizes.get(1099));
+  }
+
+  @Test
+  public void testEstimatesFollowGraphChanges() {
+    assertEquals((Integer) 1, analytics.getComponentSizes().get(300));
+    testGraph.addEdge(300, 0, "");
+    testGraph.addVertex(301);
+    Map<Integer, Integer> sizes = analytics.getComponentSizes();
+    assertEquals(302, sizes.size());
+    assertEquals((Integer) 201, sizes.get(300));
+    assertEquals((Integer) 1, sizes.get(301));
+  }
+
+  @Test
+  public void testSampleVertices() {
+    List<Integer> sample = analytics.sampleVertices(50);
+    assertEquals(50, sample.size());
+    assertEquals(50, new HashSet<Integer>(sample).size());
+    assertTrue(testGraph.getVertices().containsAll(sample));
+    assertEquals(301, analytics.sampleVertices(1000).size());
+    assertTrue(analytics.sampleVertices(0).isEmpty());
+
+    // Each vertex should be chosen about a sixth of the time
+    int[] counts = new int[301];
+    for (int i = 0; i < 600; i++) {
+      for (int vertex : analytics.sampleVertices(50)) {
+        counts[vertex]++;
+      }
+    }
+    for (int count : counts) {
+      assertTrue(count > 50 && count < 160);
+    }
+  }
+
+  @Test
+  public void testSampleEdges() {
+    List<List<Integer>> sample = analytics.sampleEdges(1000);
+    assertEquals(300, sample.size());
+    Set<List<Integer>> distinct = new HashSet<List<Integer>>(sample);
+    assertEquals(300, distinct.size());
+    for (List<Integer> edge : sample) {
+      assertEquals(2, edge.size());
+      assertTrue(testGraph.hasEdge(edge.get(0), edge.get(1)));
+    }
+    assertTrue(sample.contains(Arrays.asList(300, 300)));
+    assertEquals(20, analytics.sampleEdges(20).size());
+  }
+
+  @Test
+  public void testRandomWalk() {
+    List<Integer> sample = analytics.sampleRandomWalk(250, 5000, 100);
+    assertEquals(100, sample.size());
+    for (int vertex : sample) {
+      assertTrue(vertex >= 200 && vertex < 300);
+    }
+    // A walk from a vertex without other neighbors stays there
+    for (int vertex : analytics.sampleRandomWalk(300, 50, 10)) {
+      assertEquals(300, vertex);
+    }
+    assertEquals(3, analytics.sampleRandomWalk(0, 3, 10).size());
+  }
+
+  @Test
+  public void testDegreeDistribution() {
+    SortedMap<Integer, Double> distribution =
+        analytics.estimateDegreeDistribution(301);
+    // The path's ends and the self-edge vertex have degree 1
+    assertEquals(2, distribution.size());
+    assertEquals(3.0 / 301, distribution.get(1), 1e-9);
+    assertEquals(298.0 / 301, distribution.get(2), 1e-9);
+    assertEquals((Integer) 1, distribution.firstKey());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadPrecision() {
+    new ApproximateAnalytics<Integer>(testGraph, 3, new Random());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWalkFromMissingVertex() {
+    analytics.sampleRandomWalk(1000, 10, 10);
+  }
+}
@@ -0,0 +1,163 @@
+package edu.nyu.cs.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompactGraphTest {
+  UndirectedGraph<Integer> testGraph;
+
+  @Before
+  public void setup() {
+    testGraph = new UndirectedGraph<Integer>();
+    testGraph.addVertices(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+    testGraph.addEdge(1, 1, "self-edge");
+    testGraph.addEdge(1, 2, "1-2");
+    testGraph.addEdge(1, 3, "1-3");
+    testGraph.addEdge(1, 4, "1-4");
+    testGraph.addEdge(1, 5, "1-5");
+    testGraph.addEdge(2, 6, "2-6");
+    testGraph.addEdge(3, 7, "3-7");
+    testGraph.addEdge(4, 8, "4-8");
+    testGraph.addEdge(5, 9, "5-9");
+  }
+
+  private VertexOrdering<Integer> fixedOrdering(final Integer... order) {
+    return new VertexOrdering<Integer>() {
+      @Override
+      public List<Integer> order(UndirectedGraph<Integer> graph) {
+        return Arrays.asList(order);
+      }
+    };
+  }
+
+  private List<Integer> toList(Iterator<Integer> iter) {
+    List<Integer> list = new ArrayList<Integer>();
+    while (iter.hasNext()) {
+      list.add(iter.next());
+    }
+    return list;
+  }
+
+  @Test
+  public void testFreeze() {
+    CompactGraph<Integer> compact = testGraph.freeze(
+        fixedOrdering(10, 9, 8, 7, 6, 5, 4, 3, 2, 1));
+    assertEquals(10, compact.getVertexCount());
+    assertEquals(0, compact.getId(10));
+    assertEquals((Integer) 1, compact.getVertex(9));
+    assertEquals(Arrays.asList(5, 4, 3, 2, 1), compact.getNeighbors(1));
+    assertEquals(5, compact.getDegree(9));
+    assertEquals(5, compact.getNeighborId(9, 0));
+    assertTrue(compact.hasEdge(9, 5));
+    assertFalse(compact.hasEdge(9, 4));
+    assertEquals("2-6", compact.getEdge(6, 2));
+    assertEquals("self-edge", compact.getEdge(1, 1));
+    assertTrue(compact.getNeighbors(10).isEmpty());
+
+    testGraph.addEdge(9, 10, "added after freezing");
+    assertFalse(compact.hasEdge(9, 10));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFreeze_badOrdering() {
+    testGraph.freeze(fixedOrdering(1, 2, 3, 4, 5, 6, 7, 8, 9, 9));
+  }
+
+  @Test
+  public void testIterators() {
+    CompactGraph<Integer> compact = testGraph.freeze(
+        fixedOrdering(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+    assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9),
+        toList(compact.bfsIterator(1)));
+    assertEquals(Arrays.asList(1, 2, 6, 3, 7, 4, 8, 5, 9),
+        toList(compact.dfsIterator(1)));
+    assertEquals(Arrays.asList(10), toList(compact.dfsIterator(10)));
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testIterator_throwsException() {
+    Iterator<Integer> iter = testGraph.freeze().bfsIterator(10);
+    assertEquals((Integer) 10, iter.next());
+    iter.next();
+  }
+
+  @Test
+  public void testOrderingsArePermutations() {
+    List<VertexOrdering<Integer>> orderings =
+        new ArrayList<VertexOrdering<Integer>>();
+    orderings.add(new DegreeOrdering<Integer>());
+    orderings.add(new CuthillMcKeeOrdering<Integer>());
+    orderings.add(new CuthillMcKeeOrdering<Integer>(false));
+    orderings.add(new RabbitOrdering<Integer>());
+    orderings.add(new GorderOrdering<Integer>());
+    for (VertexOrdering<Integer> ordering : orderings) {
+      CompactGraph<Integer> compact = testGraph.freeze(ordering);
+      assertEquals(10, compact.getVertexCount());
+      assertEquals(9, toList(compact.bfsIterator(1)).size());
+      assertEquals("4-8", compact.getEdge(8, 4));
+    }
+    assertEquals((Integer) 1,
+        new DegreeOrdering<Integer>().order(testGraph).get(0));
+  }
+
+  @Test
+  public void testOrderingsReduceNeighborGap() {
+    // A 30 x 30 grid whose vertices are labelled in a scrambled order, so
+    // the iteration order of the graph has nothing to do with its shape
+    int side = 30;
+    UndirectedGraph<Integer> grid = new UndirectedGraph<Integer>();
+    for (int vertex = 0; vertex < side * side; vertex++) {
+      grid.addVertex(scramble(vertex, side * side));
+    }
+    for (int row = 0; row < side; row++) {
+      for (int col = 0; col < side; col++) {
+        int vertex = scramble(row * side + col, side * side);
+        if (col + 1 < side) {
+          grid.addEdge(vertex, scramble(row * side + col + 1, side * side), "");
+        } if (row + 1 < side) {
+          grid.addEdge(vertex, scramble((row + 1) * side + col, side * side),
+              "");
+        }
+      }
+    }
+    CompactGraph<Integer> unordered = grid.freeze();
+    assertTrue(grid.freeze(new CuthillMcKeeOrdering<Integer>())
+        .getAverageNeighborGap() < unordered.getAverageNeighborGap() / 4);
+    // The community and window orderings don't aim for a small bandwidth,
+    // but for keeping most neighbors within a few ids of each other
+    assertTrue(nearbyNeighborFraction(unordered) < 0.1);
+    assertTrue(nearbyNeighborFraction(
+        grid.freeze(new RabbitOrdering<Integer>())) > 0.5);
+    assertTrue(nearbyNeighborFraction(
+        grid.freeze(new GorderOrdering<Integer>())) > 0.5);
+  }
+
+  private double nearbyNeighborFraction(CompactGraph<Integer> graph) {
+    int nearby = 0;
+    int total = 0;
+    for (int id = 0; id < graph.getVertexCount(); id++) {
+      for (int i = 0; i < graph.getDegree(id); i++) {
+        if (Math.abs(graph.getNeighborId(id, i) - id) <= 8) {
+          nearby++;
+        }
+        total++;
+      }
+    }
+    return (double) nearby / total;
+  }
+
+  private int scramble(int vertex, int count) {
+    // 7919 is prime, so this is a permutation of [0, count) for count < 7919
+    return (int) ((vertex * 7919L) % count);
+  }
+}
@@ -0,0 +1,221 @@
+package edu.nyu.cs.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DistributedGraphRunnerTest {
+  UndirectedGraph<Integer> testGraph;
+
+  @Before
+  public void setup() {
+    // A path 0 - 1 - ... - 29, a separate triangle 30, 31, 32 and the
+    // isolated vertex 33
+    testGraph = new UndirectedGraph<Integer>();
+    for (int vertex = 0; vertex < 34; vertex++) {
+      testGraph.addVertex(vertex);
+    }
+    for (int vertex = 0; vertex < 29; vertex++) {
+      testGraph.addEdge(vertex, vertex + 1, "path");
+    }
+    testGraph.addEdge(30, 31, "triangle");
+    testGraph.addEdge(31, 32, "triangle");
+    testGraph.addEdge(30, 32, "triangle");
+    testGraph.addEdge(33, 33, "self-edge");
+  }
+
+  private DistributedGraphRunner<Integer> runner(
+      GraphPartitioner<Integer> partitioner, int shardCount) {
+    return new DistributedGraphRunner<Integer>(
+        new PartitionedGraph<Integer>(testGraph, partitioner, shardCount),
+        new LoopbackTransport<Integer>(shardCount));
+  }
+
+  @Test
+  public void testBfs() {
+    DistributedGraphRunner<Integer> runner =
+        runner(new HashPartitioner<Integer>(), 4);
+    Map<Integer, Integer> distances = runner.bfs(0);
+    assertEquals(30, distances.size());
+    for (int vertex = 0; vertex < 30; vertex++) {
+      assertEquals((Integer) vertex, distances.get(vertex));
+    }
+    assertFalse(distances.containsKey(30));
+    assertTrue(runner.getLastSuperstepCount() > 1);
+  }
+
+  @Test
+  public void testBfsMatchesIterator() {
+    Map<Integer, Integer> distances =
+        runner(new LabelPropagationPartitioner<Integer>(), 3).bfs(31);
+    Iterator<Integer> iter = testGraph.bfsIterator(31);
+    int visited = 0;
+    while (iter.hasNext()) {
+      assertTrue(distances.containsKey(iter.next()));
+      visited++;
+    }
+    assertEquals(visited, distances.size());
+    assertEquals((Integer) 0, distances.get(31));
+    assertEquals((Integer) 1, distances.get(32));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBfs_notInGraph() {
+    runner(new HashPartitioner<Integer>(), 2).bfs(100);
+  }
+
+  @Test
+  public void testConnectedComponents() {
+    for (int shardCount : Arrays.asList(1, 2, 5)) {
+      Map<Integer, Long> labels =
+          runner(new HashPartitioner<Integer>(), shardCount)
+          .connectedComponents();
+      assertEquals(34, labels.size());
+      for (int vertex = 1; vertex < 30; vertex++) {
+        assertEquals(labels.get(0), labels.get(vertex));
+      }
+      assertEquals(labels.get(30), labels.get(32));
+      assertFalse(labels.get(0).equals(labels.get(30)));
+      assertFalse(labels.get(0).equals(labels.get(33)));
+      assertFalse(labels.get(30).equals(labels.get(33)));
+    }
+  }
+
+  @Test
+  public void testWorkersOnSeparateThreads() throws InterruptedException {
+    // Build each shard the way a node would, from its own vertices and the
+    // edges touching them
+    final int shardCount = 3;
+    Map<Integer, Integer> owners =
+        new HashPartitioner<Integer>().partition(testGraph, shardCount);
+    LoopbackTransport<Integer> transport =
+        new LoopbackTransport<Integer>(shardCount);
+    final List<ShardWorker<Integer>> workers =
+        new ArrayList<ShardWorker<Integer>>();
+    for (int shardId = 0; shardId < shardCount; shardId++) {
+      GraphShard<Integer> shard = new GraphShard<Integer>(shardId, shardCount);
+      for (int vertex : testGraph.getVertices()) {
+        if (owners.get(vertex) == shardId) {
+          shard.addOwnedVertex(vertex);
+        }
+      }
+      for (int vertex : shard.getOwnedVertices()) {
+        for (int neighbor : testGraph.getNeighbors(vertex)) {
+          if (owners.get(neighbor) != shardId) {
+            shard.addGhostVertex(neighbor, owners.get(neighbor));
+          }
+          shard.addEdge(vertex, neighbor, testGraph.getEdge(vertex, neighbor));
+        }
+      }
+      workers.add(new ShardWorker<Integer>(shard, transport));
+    }
+
+    final Map<Integer, Long> distances = new HashMap<Integer, Long>();
+    List<Thread> threads = new ArrayList<Thread>();
+    for (final ShardWorker<Integer> worker : workers) {
+      Thread thread = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          worker.startBfs(0);
+          worker.run();
+          synchronized (distances) {
+            distances.putAll(worker.getValues());
+          }
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(30, distances.size());
+    for (int vertex = 0; vertex < 30; vertex++) {
+      assertEquals((Long) (long) vertex, distances.get(vertex));
+    }
+    // Every worker stops after the same superstep
+    for (ShardWorker<Integer> worker : workers) {
+      assertEquals(workers.get(0).getSuperstepCount(),
+          worker.getSuperstepCount());
+    }
+    assertTrue(workers.get(0).getSuperstepCount() > 1);
+  }
+
+  @Test
+  public void testRunAfterFailedRun() {
+    final LoopbackTransport<Integer> loopback =
+        new LoopbackTransport<Integer>(4);
+    final int[] sendsUntilFailure = {5};
+    ShardTransport<Integer> transport = new ShardTransport<Integer>() {
+      @Override
+      public void send(int fromShard, int toShard,
+          List<ShardMessage<Integer>> messages) {
+        loopback.send(fromShard, toShard, messages);
+        synchronized (sendsUntilFailure) {
+          if (--sendsUntilFailure[0] == 0) {
+            throw new IllegalStateException("Simulated network failure");
+          }
+        }
+      }
+
+      @Override
+      public List<ShardMessage<Integer>> receive(int shard) {
+        return loopback.receive(shard);
+      }
+
+      @Override
+      public long barrier(int shard) {
+        return loopback.barrier(shard);
+      }
+
+      @Override
+      public void reset() {
+        loopback.reset();
+      }
+    };
+    DistributedGraphRunner<Integer> runner = new DistributedGraphRunner<Integer>(
+        new PartitionedGraph<Integer>(testGraph, new HashPartitioner<Integer>(),
+        4), transport);
+    try {
+      runner.bfs(0);
+      fail("Run should have failed");
+    } catch (IllegalStateException e) {
+      // Messages from the failed run are left in the transport
+    }
+
+    // Leftover distances from vertex 0 would be smaller than these
+    Map<Integer, Integer> distances = runner.bfs(29);
+    assertEquals(30, distances.size());
+    for (int vertex = 0; vertex < 30; vertex++) {
+      assertEquals((Integer) (29 - vertex), distances.get(vertex));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testShardRejectsConflictingGhostOwner() {
+    GraphShard<Integer> shard = new GraphShard<Integer>(0, 3);
+    shard.addGhostVertex(1, 1);
+    shard.addGhostVertex(1, 1);
+    shard.addGhostVertex(1, 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testShardRejectsEdgeBetweenGhosts() {
+    GraphShard<Integer> shard = new GraphShard<Integer>(0, 2);
+    shard.addGhostVertex(1, 1);
+    shard.addGhostVertex(2, 1);
+    shard.addEdge(1, 2, "not ours");
+  }
+}
@@ -0,0 +1,426 @@
+package edu.nyu.cs.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DurableGraphTest {
+  Path directory;
+  boolean failSync;
+  List<String> events;
+
+  @Before
+  public void setup() throws IOException {
+    directory = Files.createTempDirectory("durable-graph");
+    events = new ArrayList<String>();
+  }
+
+  @After
+  public void cleanup() throws IOException {
+    for (String name : fileNames()) {
+      Files.delete(directory.resolve(name));
+    }
+    Files.delete(directory);
+  }
+
+  private List<String> fileNames() throws IOException {
+    List<String> names = new ArrayList<String>();
+    DirectoryStream<Path> files = Files.newDirectoryStream(directory);
+    try {
+      for (Path file : files) {
+        names.add(file.getFileName().toString());
+      }
+    } finally {
+      files.close();
+    }
+    Collections.sort(names);
+    return names;
+  }
+
+  private DurableGraph<Integer> open(int groupCommitSize,
+      int checkpointInterval) throws IOException {
+    return new DurableGraph<Integer>(directory, VertexCodec.INTEGERS,
+        groupCommitSize, checkpointInterval);
+  }
+
+  private void mutate(UndirectedGraph<Integer> graph) {
+    for (int vertex = 0; vertex < 10; vertex++) {
+      graph.addVertex(vertex);
+    }
+    for (int vertex = 1; vertex < 10; vertex++) {
+      graph.addEdge(vertex - 1, vertex, "edge " + vertex);
+    }
+    graph.addEdge(3, 3, "self-edge");
+    graph.addEdge(1, 2, "updated");
+    graph.removeEdge(4, 5);
+    graph.removeVertex(7);
+  }
+
+  private void assertMutated(UndirectedGraph<Integer> graph) {
+    assertEquals(9, graph.getVertices().size());
+    assertFalse(graph.containsVertex(7));
+    assertEquals("updated", graph.getEdge(2, 1));
+    assertEquals("self-edge", graph.getEdge(3, 3));
+    assertFalse(graph.hasEdge(4, 5));
+    assertFalse(graph.hasEdge(6, 7));
+    assertEquals("edge 9", graph.getEdge(8, 9));
+    assertEquals(1, graph.getNeighbors(6).size());
+  }
+
+  @Test
+  public void testRecoverFromLog() throws IOException {
+    DurableGraph<Integer> graph = open(4, 1000);
+    mutate(graph);
+    graph.close();
+
+    DurableGraph<Integer> recovered = open(4, 1000);
+    assertMutated(recovered);
+    recovered.addEdge(0, 9, "after recovery");
+    recovered.close();
+
+    recovered = open(4, 1000);
+    assertEquals("after recovery", recovered.getEdge(9, 0));
+    recovered.close();
+  }
+
+  @Test
+  public void testUncommittedMutationsAreLost() throws IOException {
+    DurableGraph<Integer> graph = open(1000, 1000);
+    graph.addVertex(1);
+    graph.commit();
+    graph.addVertex(2);
+
+    // Opening the directory again without closing acts like a crash
+    DurableGraph<Integer> recovered = open(1000, 1000);
+    assertTrue(recovered.containsVertex(1));
+    assertFalse(recovered.containsVertex(2));
+    recovered.close();
+    graph.close();
+  }
+
+  @Test
+  public void testTornRecordIsDiscarded() throws IOException {
+    DurableGraph<Integer> graph = open(1, 1000);
+    mutate(graph);
+    graph.close();
+    FileChannel log = FileChannel.open(directory.resolve("wal-0"),
+        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    log.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 20, 1, 2, 3}));
+    log.close();
+    long tornSize = Files.size(directory.resolve("wal-0"));
+
+    DurableGraph<Integer> recovered = open(1, 1000);
+    assertMutated(recovered);
+    assertEquals(tornSize - 7, Files.size(directory.resolve("wal-0")));
+    recovered.addVertex(100);
+    recovered.close();
+    recovered = open(1, 1000);
+    assertTrue(recovered.containsVertex(100));
+    recovered.close();
+  }
+
+  @Test
+  public void testCorruptRecordIsReported() throws IOException {
+    DurableGraph<Integer> graph = open(1, 1000);
+    mutate(graph);
+    graph.close();
+    long size = Files.size(directory.resolve("wal-0"));
+    // Damages the payload of the first record, which a crash can't do
+    FileChannel log = FileChannel.open(directory.resolve("wal-0"),
+        StandardOpenOption.WRITE);
+    log.write(ByteBuffer.wrap(new byte[] {-1}), 12);
+    log.close();
+
+    try {
+      open(1, 1000);
+      fail("Corrupt log should have been reported");
+    } catch (IOException e) {
+      // The log is left alone for someone to look at
+    }
+    assertEquals(size, Files.size(directory.resolve("wal-0")));
+  }
+
+  @Test
+  public void testCorruptLastRecordIsDiscarded() throws IOException {
+    DurableGraph<Integer> graph = open(1, 1000);
+    mutate(graph);
+    graph.close();
+    long size = Files.size(directory.resolve("wal-0"));
+    FileChannel log = FileChannel.open(directory.resolve("wal-0"),
+        StandardOpenOption.WRITE);
+    log.write(ByteBuffer.wrap(new byte[] {-1}), size - 1);
+    log.close();
+
+    // The last record removed vertex 7
+    DurableGraph<Integer> recovered = open(1, 1000);
+    assertTrue(recovered.containsVertex(7));
+    assertTrue(Files.size(directory.resolve("wal-0")) < size);
+    recovered.close();
+  }
+
+  @Test
+  public void testCheckpoint() throws IOException {
+    DurableGraph<Integer> graph = open(4, 1000);
+    mutate(graph);
+    graph.checkpoint();
+    assertEquals(0, Files.size(directory.resolve("wal-1")));
+    graph.addVertex(100);
+    graph.close();
+    List<String> expectedFiles = new ArrayList<String>();
+    expectedFiles.add("checkpoint-1");
+    expectedFiles.add("wal-1");
+    assertEquals(expectedFiles, fileNames());
+
+    DurableGraph<Integer> recovered = open(4, 1000);
+    assertTrue(recovered.containsVertex(100));
+    recovered.removeVertex(100);
+    assertMutated(recovered);
+    recovered.close();
+  }
+
+  @Test
+  public void testAutomaticCheckpoint() throws IOException {
+    DurableGraph<Integer> graph = open(2, 10);
+    mutate(graph);
+    graph.close();
+    assertFalse(fileNames().contains("wal-0"));
+
+    DurableGraph<Integer> recovered = open(2, 10);
+    assertMutated(recovered);
+    recovered.close();
+  }
+
+  @Test
+  public void testCheckpointKeepsEmptyVertex() throws IOException {
+    DurableGraph<String> graph = new DurableGraph<String>(directory,
+        VertexCodec.STRINGS);
+    graph.addVertex("");
+    graph.addVertex("y");
+    graph.addVertex("a\tb\nc");
+    graph.addEdge("", "a\tb\nc", "");
+    graph.addVertex("z");
+    graph.checkpoint();
+    graph.close();
+
+    DurableGraph<String> recovered = new DurableGraph<String>(directory,
+        VertexCodec.STRINGS);
+    assertEquals(4, recovered.getVertices().size());
+    assertTrue(recovered.containsVertex(""));
+    assertEquals("", recovered.getEdge("a\tb\nc", ""));
+    assertTrue(recovered.getNeighbors("z").isEmpty());
+    recovered.close();
+  }
+
+  @Test
+  public void testFailedCommitIsNotDuplicated() throws IOException {
+    DurableGraph<Integer> graph = new DurableGraph<Integer>(directory,
+        VertexCodec.INTEGERS, 1000, 1000, new TestStorage());
+    graph.addVertex(1);
+    graph.commit();
+    long committedSize = Files.size(directory.resolve("wal-0"));
+    graph.addVertex(2);
+    graph.addEdge(1, 2, "edge");
+    graph.removeVertex(2);
+    failSync = true;
+    try {
+      graph.commit();
+      fail("Commit should have failed");
+    } catch (IOException e) {
+      // The records were written but not synced
+    }
+    assertEquals(committedSize, Files.size(directory.resolve("wal-0")));
+    failSync = false;
+    graph.commit();
+    graph.close();
+
+    // Replaying removeVertex(2) twice would throw
+    DurableGraph<Integer> recovered = open(1000, 1000);
+    assertEquals(1, recovered.getVertices().size());
+    assertTrue(recovered.containsVertex(1));
+    recovered.close();
+  }
+
+  @Test
+  public void testNewLogIsSyncedBeforeCommit() throws IOException {
+    DurableGraph<Integer> graph = new DurableGraph<Integer>(directory,
+        VertexCodec.INTEGERS, 1000, 1000, new TestStorage());
+    graph.addVertex(1);
+    graph.commit();
+    assertEquals(Arrays.asList("open wal-0", "sync directory", "force wal-0"),
+        events);
+
+    events.clear();
+    graph.addVertex(2);
+    graph.checkpoint();
+    graph.addVertex(3);
+    graph.commit();
+    graph.close();
+    assertEquals(Arrays.asList("force wal-0", "open checkpoint-1.tmp",
+        "force checkpoint-1.tmp", "open wal-1", "sync directory",
+        "force wal-1"), events);
+  }
+
+  /***
+   * Storage that records the files it opens and the directory syncs in
+   * events, and hands out FlakyChannels.
+   */
+  private class TestStorage implements DurableGraph.Storage {
+    @Override
+    public FileChannel open(Path file, OpenOption... options)
+        throws IOException {
+      String name = file.getFileName().toString();
+      events.add("open " + name);
+      return new FlakyChannel(FileChannel.open(file, options), name);
+    }
+
+    @Override
+    public void syncDirectory(Path syncedDirectory) {
+      events.add("sync directory");
+      DurableGraph.FILE_STORAGE.syncDirectory(syncedDirectory);
+    }
+  }
+
+  /***
+   * FileChannel that records its syncs in events and whose sync fails while
+   * failSync is set, after the data has been written, like a disk reporting
+   * a write error late.
+   */
+  private class FlakyChannel extends FileChannel {
+    private final FileChannel channel;
+    private final String name;
+
+    FlakyChannel(FileChannel channel, String name) {
+      this.channel = channel;
+      this.name = name;
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+      events.add("force " + name);
+      if (failSync) {
+        throw new IOException("Simulated sync failure");
+      }
+      channel.force(metaData);
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      return channel.read(dst);
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length)
+        throws IOException {
+      return channel.read(dsts, offset, length);
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+      return channel.write(src);
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length)
+        throws IOException {
+      return channel.write(srcs, offset, length);
+    }
+
+    @Override
+    public long position() throws IOException {
+      return channel.position();
+    }
+
+    @Override
+    public FileChannel position(long newPosition) throws IOException {
+      channel.position(newPosition);
+      return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+      return channel.size();
+    }
+
+    @Override
+    public FileChannel truncate(long size) throws IOException {
+      channel.truncate(size);
+      return this;
+    }
+
+    @Override
+    public long transferTo(long position, long count,
+        WritableByteChannel target) throws IOException {
+      return channel.transferTo(position, count, target);
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position,
+        long count) throws IOException {
+      return channel.transferFrom(src, position, count);
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+      return channel.read(dst, position);
+    }
+
+    @Override
+    public int write(ByteBuffer src, long position) throws IOException {
+      return channel.write(src, position);
+    }
+
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size)
+        throws IOException {
+      return channel.map(mode, position, size);
+    }
+
+    @Override
+    public FileLock lock(long position, long size, boolean shared)
+        throws IOException {
+      return channel.lock(position, size, shared);
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared)
+        throws IOException {
+      return channel.tryLock(position, size, shared);
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+      channel.close();
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testClosedGraphIsReadOnly() throws IOException {
+    DurableGraph<Integer> graph = open(4, 1000);
+    graph.addVertex(1);
+    graph.close();
+    assertTrue(graph.containsVertex(1));
+    graph.addVertex(2);
+  }
+}
@@ -0,0 +1,150 @@
+package edu.nyu.cs.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class GraphIOTest {
+  UndirectedGraph<String> testGraph;
+
+  @Before
+  public void setup() {
+    testGraph = new UndirectedGraph<String>();
+    testGraph.addVertices(Arrays.asList("a", "b c", "tab\there", "#hash",
+        "<xml & \"quotes\">", "lonely", "\u00fcn\u00efc\u00f6d\u00e9", "a\\b",
+        "x\\", ""));
+    testGraph.addEdge("a", "b c", "plain label");
+    testGraph.addEdge("a", "a", "self-edge");
+    testGraph.addEdge("b c", "tab\there", "multi\nline\\label");
+    testGraph.addEdge("#hash", "<xml & \"quotes\">", "<&>");
+    testGraph.addEdge("\u00fcn\u00efc\u00f6d\u00e9", "a", "\u00fcn\u00efc\u00f6d\u00e9 label");
+    testGraph.addEdge("a", "tab\there", "");
+    testGraph.addEdge("a\\b", "x\\", "back\\slash");
+  }
+
+  private byte[] write(UndirectedGraph<String> graph, GraphFormat format)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    new GraphWriter<String>(format, VertexCodec.STRINGS)
+        .write(graph, Channels.newChannel(bytes));
+    return bytes.toByteArray();
+  }
+
+  private UndirectedGraph<String> read(byte[] bytes, GraphFormat format,
+      int chunkSize) throws IOException {
+    UndirectedGraph<String> graph = new UndirectedGraph<String>();
+    new GraphReader<String>(format, VertexCodec.STRINGS, 4, chunkSize)
+        .readInto(Channels.newChannel(new ByteArrayInputStream(bytes)), graph);
+    return graph;
+  }
+
+  private void assertSameGraph(UndirectedGraph<String> expected,
+      UndirectedGraph<String> actual, boolean compareLabels) {
+    assertEquals(expected.getVertices().size(), actual.getVertices().size());
+    for (String vertex : expected.getVertices()) {
+      assertTrue(actual.containsVertex(vertex));
+      assertEquals(expected.getNeighbors(vertex).size(),
+          actual.getNeighbors(vertex).size());
+      for (String neighbor : expected.getNeighbors(vertex)) {
+        assertTrue(actual.hasEdge(vertex, neighbor));
+        if (compareLabels) {
+          assertEquals(expected.getEdge(vertex, neighbor),
+              actual.getEdge(vertex, neighbor));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testEdgeListRoundTrip() throws IOException {
+    byte[] bytes = write(testGraph, GraphFormat.EDGE_LIST);
+    // Small chunks force lines to be split across reads
+    for (int chunkSize : Arrays.asList(1, 7, 64, 1 << 16)) {
+      assertSameGraph(testGraph, read(bytes, GraphFormat.EDGE_LIST, chunkSize),
+          true);
+    }
+  }
+
+  @Test
+  public void testAdjacencyListRoundTrip() throws IOException {
+    byte[] bytes = write(testGraph, GraphFormat.ADJACENCY_LIST);
+    UndirectedGraph<String> graph = read(bytes, GraphFormat.ADJACENCY_LIST, 5);
+    assertSameGraph(testGraph, graph, false);
+    assertEquals("", graph.getEdge("a", "b c"));
+  }
+
+  @Test
+  public void testGraphMLRoundTrip() throws IOException {
+    byte[] bytes = write(testGraph, GraphFormat.GRAPHML_LITE);
+    assertSameGraph(testGraph, read(bytes, GraphFormat.GRAPHML_LITE, 13), true);
+  }
+
+  @Test
+  public void testEmptyVertex() throws IOException {
+    assertEquals("\\0", GraphFormat.escape(""));
+    assertEquals("", GraphFormat.unescape(GraphFormat.escape("")));
+    for (GraphFormat format : GraphFormat.values()) {
+      UndirectedGraph<String> graph = read(write(testGraph, format), format, 64);
+      assertTrue(graph.containsVertex(""));
+      assertTrue(graph.getNeighbors("").isEmpty());
+    }
+  }
+
+  @Test
+  public void testFileRoundTrip() throws IOException {
+    UndirectedGraph<Integer> graph = new UndirectedGraph<Integer>();
+    for (int vertex = 0; vertex < 2000; vertex++) {
+      graph.addVertex(vertex);
+      if (vertex > 0) {
+        graph.addEdge(vertex, vertex / 2, "edge " + vertex);
+      }
+    }
+    Path file = Files.createTempFile("graph", ".tsv");
+    try {
+      new GraphWriter<Integer>(GraphFormat.EDGE_LIST, VertexCodec.INTEGERS)
+          .write(graph, file);
+      UndirectedGraph<Integer> readGraph = new GraphReader<Integer>(
+          GraphFormat.EDGE_LIST, VertexCodec.INTEGERS, 3, 256).read(file);
+      assertEquals(2000, readGraph.getVertices().size());
+      assertEquals("edge 1999", readGraph.getEdge(999, 1999));
+      assertFalse(readGraph.hasEdge(0, 1999));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testRemovedEdgesNotWritten() throws IOException {
+    testGraph.removeEdge("a", "b c");
+    UndirectedGraph<String> graph =
+        read(write(testGraph, GraphFormat.EDGE_LIST), GraphFormat.EDGE_LIST, 64);
+    assertFalse(graph.hasEdge("a", "b c"));
+    assertSameGraph(testGraph, graph, true);
+  }
+
+  @Test
+  public void testCommentsAndCarriageReturns() throws IOException {
+    byte[] bytes = "# comment\r\n1\t2\tx\r\n\r\n3\r\n".getBytes("UTF-8");
+    UndirectedGraph<Integer> graph = new UndirectedGraph<Integer>();
+    new GraphReader<Integer>(GraphFormat.EDGE_LIST, VertexCodec.INTEGERS)
+        .readInto(Channels.newChannel(new ByteArrayInputStream(bytes)), graph);
+    assertEquals(3, graph.getVertices().size());
+    assertEquals("x", graph.getEdge(2, 1));
+  }
+
+  @Test(expected = IOException.class)
+  public void testMalformedLine() throws IOException {
+    read("a\tb\n".getBytes("UTF-8"), GraphFormat.EDGE_LIST, 64);
+  }
+}
@@ -0,0 +1,116 @@
+package edu.nyu.cs.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class NeighborSetTest {
+
+  NeighborSet<Integer> testSet;
+
+  @Before
+  public void setup() {
+    testSet = new NeighborSet<Integer>(8);
+  }
+
+  private List<Integer> range(int from, int to) {
+    List<Integer> list = new ArrayList<Integer>();
+    for (int i = from; i < to; i++) {
+      list.add(i);
+    }
+    return list;
+  }
+
+  @Test
+  public void testSmallSet() {
+    testSet.addAll(range(0, 5));
+    assertFalse(testSet.isPromoted());
+    assertEquals(5, testSet.size());
+    assertTrue(testSet.contains(3));
+    assertFalse(testSet.contains(5));
+    assertTrue(testSet.remove(2));
+    assertFalse(testSet.remove(2));
+    assertEquals(Arrays.asList(0, 1, 3, 4), new ArrayList<Integer>(testSet));
+  }
+
+  @Test
+  public void testPromotionAndDemotion() {
+    testSet.addAll(range(0, 8));
+    assertFalse(testSet.isPromoted());
+    testSet.add(8);
+    assertTrue(testSet.isPromoted());
+    assertEquals(range(0, 9), new ArrayList<Integer>(testSet));
+    assertTrue(testSet.contains(8));
+
+    for (int i = 0; i < 4; i++) {
+      assertTrue(testSet.remove(i));
+    }
+    assertTrue(testSet.isPromoted());
+    assertTrue(testSet.remove(4));
+    assertFalse(testSet.isPromoted());
+    assertEquals(range(5, 9), new ArrayList<Integer>(testSet));
+    testSet.add(100);
+    assertTrue(testSet.contains(100));
+  }
+
+  @Test
+  public void testCopyConstructor() {
+    testSet.addAll(range(0, 20));
+    NeighborSet<Integer> copy = new NeighborSet<Integer>(testSet);
+    testSet.remove(3);
+    assertTrue(copy.contains(3));
+    assertTrue(copy.isPromoted());
+
+    NeighborSet<Integer> small = new NeighborSet<Integer>(8);
+    small.add(1);
+    NeighborSet<Integer> smallCopy = new NeighborSet<Integer>(small);
+    small.add(2);
+    assertEquals(1, smallCopy.size());
+  }
+
+  @Test
+  public void testRandomElement() {
+    Random random = new Random(7);
+    testSet.addAll(range(0, 3));
+    Set<Integer> seen = new HashSet<Integer>();
+    for (int i = 0; i < 100; i++) {
+      seen.add(testSet.randomElement(random));
+    }
+    assertEquals(new HashSet<Integer>(range(0, 3)), seen);
+
+    // Removing most of a hub leaves holes that randomElement must skip
+    testSet.addAll(range(3, 40));
+    assertTrue(testSet.isPromoted());
+    for (int i = 0; i < 30; i++) {
+      testSet.remove(i);
+    }
+    assertTrue(testSet.isPromoted());
+    seen.clear();
+    for (int i = 0; i < 500; i++) {
+      seen.add(testSet.randomElement(random));
+    }
+    assertEquals(new HashSet<Integer>(range(30, 40)), seen);
+    assertEquals(range(30, 40), new ArrayList<Integer>(testSet));
+  }
+
+  @Test(expected = ConcurrentModificationException.class)
+  public void testIteratorFailsFast() {
+    testSet.addAll(range(0, 3));
+    Iterator<Integer> iter = testSet.iterator();
+    iter.next();
+    testSet.remove(2);
+    iter.next();
+  }
+}
@@ -0,0 +1,116 @@
+package edu.nyu.cs.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PartitionedGraphTest {
+  UndirectedGraph<Integer> testGraph;
+
+  @Before
+  public void setup() {
+    // Two triangles joined by the edge 3 -- 4
+    testGraph = new UndirectedGraph<Integer>();
+    testGraph.addVertices(Arrays.asList(1, 2, 3, 4, 5, 6));
+    testGraph.addEdge(1, 2, "a");
+    testGraph.addEdge(2, 3, "b");
+    testGraph.addEdge(1, 3, "c");
+    testGraph.addEdge(3, 4, "bridge");
+    testGraph.addEdge(4, 5, "d");
+    testGraph.addEdge(5, 6, "e");
+    testGraph.addEdge(4, 6, "f");
+  }
+
+  private GraphPartitioner<Integer> fixedPartitioner(
+      final Map<Integer, Integer> assignment) {
+    return new GraphPartitioner<Integer>() {
+      @Override
+      public Map<Integer, Integer> partition(UndirectedGraph<Integer> graph,
+          int shardCount) {
+        return assignment;
+      }
+    };
+  }
+
+  @Test
+  public void testGhostVertices() {
+    Map<Integer, Integer> assignment = new HashMap<Integer, Integer>();
+    for (int vertex = 1; vertex <= 6; vertex++) {
+      assignment.put(vertex, vertex <= 3 ? 0 : 1);
+    }
+    PartitionedGraph<Integer> partitioned = new PartitionedGraph<Integer>(
+        testGraph, fixedPartitioner(assignment), 2);
+
+    assertEquals(1, partitioned.getCutEdgeCount());
+    GraphShard<Integer> first = partitioned.getShard(0);
+    assertEquals(3, first.getOwnedVertices().size());
+    assertEquals(Arrays.asList(4), first.getGhostVertices());
+    assertTrue(first.isGhost(4));
+    assertFalse(first.isGhost(3));
+    assertEquals(1, first.getGhostOwner(4));
+
+    UndirectedGraph<Integer> local = first.getLocalGraph();
+    assertEquals("bridge", local.getEdge(3, 4));
+    assertEquals("a", local.getEdge(1, 2));
+    assertFalse(local.containsVertex(5));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidAssignment() {
+    Map<Integer, Integer> assignment = new HashMap<Integer, Integer>();
+    for (int vertex = 1; vertex <= 6; vertex++) {
+      assignment.put(vertex, 2);
+    }
+    new PartitionedGraph<Integer>(testGraph, fixedPartitioner(assignment), 2);
+  }
+
+  @Test
+  public void testHashPartitioner() {
+    PartitionedGraph<Integer> partitioned = new PartitionedGraph<Integer>(
+        testGraph, new HashPartitioner<Integer>(), 3);
+    int owned = 0;
+    for (GraphShard<Integer> shard : partitioned.getShards()) {
+      owned += shard.getOwnedVertices().size();
+      for (Integer vertex : shard.getOwnedVertices()) {
+        assertEquals(shard.getShardId(), partitioned.getOwner(vertex));
+      }
+    }
+    assertEquals(6, owned);
+  }
+
+  @Test
+  public void testLabelPropagationCutsFewerEdges() {
+    UndirectedGraph<Integer> grid = new UndirectedGraph<Integer>();
+    int side = 20;
+    for (int vertex = 0; vertex < side * side; vertex++) {
+      grid.addVertex(vertex);
+    }
+    for (int row = 0; row < side; row++) {
+      for (int col = 0; col < side; col++) {
+        int vertex = row * side + col;
+        if (col + 1 < side) {
+          grid.addEdge(vertex, vertex + 1, "right");
+        } if (row + 1 < side) {
+          grid.addEdge(vertex, vertex + side, "down");
+        }
+      }
+    }
+    PartitionedGraph<Integer> hashed = new PartitionedGraph<Integer>(
+        grid, new HashPartitioner<Integer>(), 4);
+    PartitionedGraph<Integer> propagated = new PartitionedGraph<Integer>(
+        grid, new LabelPropagationPartitioner<Integer>(), 4);
+
+    assertTrue(propagated.getCutEdgeCount() < hashed.getCutEdgeCount());
+    int capacity = (int) Math.ceil(side * side / 4.0 * 1.05);
+    for (GraphShard<Integer> shard : propagated.getShards()) {
+      assertTrue(shard.getOwnedVertices().size() <= capacity);
+    }
+  }
+}
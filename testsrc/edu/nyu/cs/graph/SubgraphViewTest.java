@@ -0,0 +1,93 @@
+package edu.nyu.cs.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SubgraphViewTest {
+  UndirectedGraph<Integer> testGraph;
+
+  @Before
+  public void setup() {
+    // 1 is the center of a star of 2, 3 and 4, and 4 starts the path
+    // 4 - 5 - 6
+    testGraph = new UndirectedGraph<Integer>();
+    testGraph.addVertices(Arrays.asList(1, 2, 3, 4, 5, 6, 7));
+    testGraph.addEdge(1, 2, "1-2");
+    testGraph.addEdge(1, 3, "1-3");
+    testGraph.addEdge(1, 4, "1-4");
+    testGraph.addEdge(2, 3, "2-3");
+    testGraph.addEdge(4, 5, "4-5");
+    testGraph.addEdge(5, 6, "5-6");
+    testGraph.addEdge(6, 6, "self-edge");
+  }
+
+  @Test
+  public void testSubgraph() {
+    SubgraphView<Integer> view = testGraph.subgraph(Arrays.asList(1, 2, 5));
+    assertEquals(new HashSet<Integer>(Arrays.asList(1, 2, 5)),
+        new HashSet<Integer>(view.getVertices()));
+    assertEquals(Arrays.asList(2), view.getNeighbors(1));
+    assertTrue(view.getNeighbors(5).isEmpty());
+    assertTrue(view.hasEdge(2, 1));
+    assertFalse(view.hasEdge(1, 3));
+    assertEquals("1-2", view.getEdge(1, 2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSubgraph_notInGraph() {
+    testGraph.subgraph(Arrays.asList(1, 100));
+  }
+
+  @Test
+  public void testViewSharesParent() {
+    SubgraphView<Integer> view = testGraph.subgraph(Arrays.asList(1, 2, 3));
+    testGraph.removeEdge(1, 2);
+    assertFalse(view.hasEdge(1, 2));
+    testGraph.removeVertex(3);
+    assertFalse(view.containsVertex(3));
+    assertEquals(2, view.getVertices().size());
+    testGraph.addVertex(3);
+    assertTrue(view.containsVertex(3));
+    testGraph.addEdge(1, 3, "new");
+    assertEquals("new", view.getEdge(3, 1));
+    testGraph.addVertex(100);
+    testGraph.addEdge(1, 100, "outside");
+    assertFalse(view.containsVertex(100));
+    assertEquals(Arrays.asList(3), view.getNeighbors(1));
+  }
+
+  @Test
+  public void testEgoNetwork() {
+    assertEquals(Arrays.asList(7), testGraph.egoNetwork(7, 3).getVertices());
+    assertEquals(Arrays.asList(1), testGraph.egoNetwork(1, 0).getVertices());
+    assertEquals(new HashSet<Integer>(Arrays.asList(1, 2, 3, 4)),
+        new HashSet<Integer>(testGraph.egoNetwork(1, 1).getVertices()));
+    assertEquals(new HashSet<Integer>(Arrays.asList(1, 2, 3, 4, 5)),
+        new HashSet<Integer>(testGraph.egoNetwork(1, 2).getVertices()));
+    assertEquals(new HashSet<Integer>(Arrays.asList(4, 5, 6, 1)),
+        new HashSet<Integer>(testGraph.egoNetwork(5, 2).getVertices()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEgoNetwork_negativeRadius() {
+    testGraph.egoNetwork(1, -1);
+  }
+
+  @Test
+  public void testMaterialize() {
+    UndirectedGraph<Integer> copy = testGraph.egoNetwork(6, 2).materialize();
+    assertEquals(3, copy.getVertices().size());
+    assertEquals("4-5", copy.getEdge(4, 5));
+    assertEquals("self-edge", copy.getEdge(6, 6));
+    assertEquals(Arrays.asList(5), copy.getNeighbors(4));
+    testGraph.removeEdge(4, 5);
+    assertTrue(copy.hasEdge(4, 5));
+  }
+}
@@ -5,10 +5,14 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -96,6 +100,8 @@ public class UndirectedGraphTest {
     assertEquals(testGraph.addEdge(15, 10, "Overwriting old edge"),
         "FirstValue");
     assertEquals(testGraph.getEdge(10, 15), "Overwriting old edge");
+    assertEquals(testGraph.edgeValueOrNull(15, 10), "Overwriting old edge");
+    assertEquals(testGraph.edgeValueOrNull(10, 10), null);
   }
   
   @Test
@@ -133,6 +139,9 @@ public class UndirectedGraphTest {
     assertEquals(testGraph.removeEdge(10, 15), "Hello");
     assertFalse(testGraph.hasEdge(10,  15));
     assertFalse(testGraph.hasEdge(15,  10));
+    assertFalse(testGraph.areAdjacentForTesting(10, 15));
+    assertFalse(testGraph.areAdjacentForTesting(15, 10));
+    assertTrue(testGraph.getNeighbors(10).isEmpty());
   }
   
   @Test
@@ -150,6 +159,28 @@ public class UndirectedGraphTest {
     assertFalse(testGraph.containsVertex(1));
   }
   
+  @Test
+  public void testHubVertex() {
+    testGraph.addVertex(0);
+    for (int leaf = 1; leaf <= 1000; leaf++) {
+      testGraph.addVertex(leaf);
+      testGraph.addEdge(0, leaf, "spoke");
+    }
+    assertEquals(1000, testGraph.getNeighbors(0).size());
+    assertEquals((Integer) 1, testGraph.getNeighbors(0).get(0));
+    assertTrue(testGraph.hasEdge(500, 0));
+    assertFalse(testGraph.hasEdge(500, 501));
+    for (int leaf = 1; leaf <= 990; leaf++) {
+      testGraph.removeVertex(leaf);
+    }
+    assertEquals(Arrays.asList(991, 992, 993, 994, 995, 996, 997, 998, 999,
+        1000), testGraph.getNeighbors(0));
+    assertFalse(testGraph.areAdjacentForTesting(0, 500));
+    assertTrue(testGraph.areAdjacentForTesting(0, 995));
+    testGraph.removeVertex(0);
+    assertTrue(testGraph.getNeighbors(995).isEmpty());
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testBFSIter_empty() {
     Iterator<Integer> iter = testGraph.bfsIterator(1);
@@ -219,6 +250,43 @@ public class UndirectedGraphTest {
     assertTrue(matchSequence(iter2, 10));
   }
   
+  @Test
+  public void testEdgeIterator() {
+    testGraph.addVertices(Arrays.asList(1, 2, 3, 4));
+    testGraph.addEdge(1, 1, "self-edge");
+    testGraph.addEdge(1, 2, "a");
+    testGraph.addEdge(2, 3, "b");
+    testGraph.addEdge(3, 1, "c");
+    
+    Map<Set<Integer>, String> edges = new HashMap<Set<Integer>, String>();
+    Iterator<GraphRecord<Integer>> iter = testGraph.edgeIterator();
+    while (iter.hasNext()) {
+      GraphRecord<Integer> edge = iter.next();
+      assertEquals(null, edges.put(
+          new HashSet<Integer>(Arrays.asList(edge.vertex1, edge.vertex2)),
+          edge.label));
+    }
+    assertEquals(4, edges.size());
+    assertEquals("self-edge", edges.get(Collections.singleton(1)));
+    assertEquals("c", edges.get(new HashSet<Integer>(Arrays.asList(1, 3))));
+    
+    // Only edges with both ends among the members
+    Set<Integer> members = new HashSet<Integer>(Arrays.asList(2, 3, 4));
+    Iterator<GraphRecord<Integer>> memberIter =
+        testGraph.edgeIterator(members, members);
+    GraphRecord<Integer> edge = memberIter.next();
+    assertEquals(new HashSet<Integer>(Arrays.asList(2, 3)),
+        new HashSet<Integer>(Arrays.asList(edge.vertex1, edge.vertex2)));
+    assertEquals("b", edge.label);
+    assertFalse(memberIter.hasNext());
+  }
+  
+  @Test(expected = NoSuchElementException.class)
+  public void testEdgeIterator_throwsException() {
+    testGraph.addVertex(1);
+    testGraph.edgeIterator().next();
+  }
+  
   //Doesn't rely on subtyping or mutation to Object[] to perform, so it's safe
   //to suppress warnings here
   private <T> boolean matchSequence(Iterator<T> iter,